@@ -0,0 +1,128 @@
+package com.smartinventory.inventory.benchmark;
+
+import com.smartinventory.inventory.InventoryServiceApplication;
+import com.smartinventory.inventory.entity.Product;
+import com.smartinventory.inventory.entity.ProductSupplier;
+import com.smartinventory.inventory.entity.Supplier;
+import com.smartinventory.inventory.entity.UnitOfMeasure;
+import com.smartinventory.inventory.repository.ProductRepository;
+import com.smartinventory.inventory.repository.ProductSupplierRepository;
+import com.smartinventory.inventory.repository.SupplierRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Boots the inventory service against an embedded H2 database and seeds a catalog
+ * of {@code catalogSize} products. The first supplier supplies every product (and is their
+ * preferred supplier), the other {@code supplierCount - 1} suppliers each carry a share as
+ * alternates. One context is shared by all threads of a trial.
+ */
+@State(Scope.Benchmark)
+public class CatalogState {
+
+    private static final int SEED_CHUNK = 1_000;
+
+    @Param({"1000", "10000"})
+    public int catalogSize;
+
+    @Param({"10"})
+    public int supplierCount;
+
+    public ConfigurableApplicationContext context;
+
+    // the supplier of every product and the product ids, used to build PO lines
+    public Supplier supplier;
+    public List<Long> suppliedProductIds;
+
+    @Setup(Level.Trial)
+    public void start() {
+        List<String> args = new ArrayList<>();
+        args.add("--spring.profiles.active=bench");
+        args.addAll(extraArguments());
+        context = new SpringApplicationBuilder(InventoryServiceApplication.class)
+                .run(args.toArray(String[]::new));
+        seed();
+    }
+
+    /**
+     * Additional command line properties for subclasses that benchmark a configuration switch.
+     */
+    protected List<String> extraArguments() {
+        return List.of();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void seed() {
+        SupplierRepository supplierRepository = bean(SupplierRepository.class);
+        ProductRepository productRepository = bean(ProductRepository.class);
+        ProductSupplierRepository productSupplierRepository = bean(ProductSupplierRepository.class);
+
+        List<Supplier> suppliers = new ArrayList<>();
+        for (int s = 0; s < supplierCount; s++) {
+            Supplier sup = new Supplier();
+            sup.setName("Supplier " + s);
+            sup.setEmail("supplier" + s + "@bench.local");
+            sup.setPhone("90000" + String.format("%05d", s));
+            sup.setAddress("Dock " + s);
+            suppliers.add(sup);
+        }
+        suppliers = supplierRepository.saveAll(suppliers);
+        supplier = suppliers.get(0);
+        suppliedProductIds = new ArrayList<>();
+
+        for (int from = 0; from < catalogSize; from += SEED_CHUNK) {
+            int to = Math.min(catalogSize, from + SEED_CHUNK);
+            List<Product> products = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                Product p = new Product();
+                p.setName("Product " + i);
+                p.setSku("SKU-" + String.format("%07d", i));
+                p.setDescription("Benchmark product number " + i);
+                p.setPrice(BigDecimal.valueOf(10 + (i % 90)));
+                p.setQuantity(BigDecimal.ZERO);
+                p.setUom(UnitOfMeasure.PCS);
+                p.setActive(true);
+                products.add(p);
+            }
+            products = productRepository.saveAll(products);
+
+            List<ProductSupplier> relations = new ArrayList<>(products.size() * 2);
+            for (int i = 0; i < products.size(); i++) {
+                Product p = products.get(i);
+                relations.add(relation(p, supplier, true, from + i));
+                suppliedProductIds.add(p.getId());
+                Supplier alternate = suppliers.get((from + i) % supplierCount);
+                if (!Objects.equals(alternate.getId(), supplier.getId())) {
+                    relations.add(relation(p, alternate, false, from + i));
+                }
+            }
+            productSupplierRepository.saveAll(relations);
+        }
+    }
+
+    private static ProductSupplier relation(Product product, Supplier supplier, boolean preferred, int index) {
+        return ProductSupplier.builder()
+                .product(product)
+                .supplier(supplier)
+                .supplierPrice(product.getPrice().subtract(BigDecimal.ONE))
+                .leadTimeDays(1 + index % 14)
+                .preferredSupplier(preferred)
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.smartinventory.inventory.benchmark;
+
+import com.smartinventory.inventory.dto.ProductResponseDTO;
+import com.smartinventory.inventory.dto.PurchaseOrderResponseDTO;
+import com.smartinventory.inventory.entity.*;
+import com.smartinventory.inventory.service.ProductService;
+import com.smartinventory.inventory.service.PurchaseOrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mappers on detached, fully initialised entities, so only the mapping itself is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({"10", "500"})
+    public int linesPerOrder;
+
+    private ProductService productService;
+    private PurchaseOrderService purchaseOrderService;
+    private Product product;
+    private PurchaseOrder purchaseOrder;
+
+    @Setup(Level.Trial)
+    public void setUp(CatalogState catalog) {
+        productService = catalog.bean(ProductService.class);
+        purchaseOrderService = catalog.bean(PurchaseOrderService.class);
+
+        product = Product.builder()
+                .id(1L)
+                .name("Mapper product")
+                .sku("SKU-MAPPER")
+                .description("Detached product used by the mapper benchmark")
+                .price(new BigDecimal("12.50"))
+                .quantity(new BigDecimal("40"))
+                .uom(UnitOfMeasure.PCS)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .active(true)
+                .build();
+
+        Supplier supplier = new Supplier();
+        supplier.setId(1L);
+        supplier.setName("Mapper supplier");
+
+        purchaseOrder = PurchaseOrder.builder()
+                .id(1L)
+                .orderNumber("ORDER-00001")
+                .supplier(supplier)
+                .orderDate(LocalDateTime.now())
+                .orderStatus(OrderStatus.DRAFT)
+                .build();
+        List<PurchaseOrderLine> lines = new ArrayList<>(linesPerOrder);
+        for (long i = 0; i < linesPerOrder; i++) {
+            lines.add(PurchaseOrderLine.builder()
+                    .id(i + 1)
+                    .purchaseOrder(purchaseOrder)
+                    .product(product)
+                    .quantity(BigDecimal.TEN)
+                    .unitPrice(product.getPrice())
+                    .subtotal(product.getPrice().multiply(BigDecimal.TEN))
+                    .receivedQuantity(BigDecimal.ZERO)
+                    .lineStatus(LineStatus.PENDING)
+                    .build());
+        }
+        purchaseOrder.setPurchaseOrderLineList(lines);
+    }
+
+    @Benchmark
+    public ProductResponseDTO mapProduct() {
+        return productService.mapToResponseDTO(product);
+    }
+
+    @Benchmark
+    public PurchaseOrderResponseDTO mapPurchaseOrder() {
+        return purchaseOrderService.mapToResponseDTO(purchaseOrder);
+    }
+}
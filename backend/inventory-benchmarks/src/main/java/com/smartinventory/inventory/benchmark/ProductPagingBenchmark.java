@@ -0,0 +1,59 @@
+package com.smartinventory.inventory.benchmark;
+
+import com.smartinventory.inventory.dto.CursorPageResponseDTO;
+import com.smartinventory.inventory.dto.ProductResponseDTO;
+import com.smartinventory.inventory.service.ProductService;
+import com.smartinventory.inventory.util.CursorCodec;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The last page of the seeded catalog fetched by offset (with and without the count) and by keyset cursor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductPagingBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    private ProductService productService;
+    private Pageable lastPage;
+    private String lastPageCursor;
+
+    @Setup(Level.Trial)
+    public void setUp(CatalogState catalog) {
+        // the cursor is the last id of the page before the last one, so at least two full pages are needed
+        if (catalog.suppliedProductIds.size() < 2 * PAGE_SIZE) {
+            throw new IllegalStateException("catalogSize " + catalog.catalogSize + " is too small for "
+                    + "two pages of " + PAGE_SIZE + " supplied products");
+        }
+        productService = catalog.bean(ProductService.class);
+        int pages = catalog.suppliedProductIds.size() / PAGE_SIZE;
+        lastPage = PageRequest.of(pages - 1, PAGE_SIZE);
+        long beforeLastPage = catalog.suppliedProductIds.get((pages - 1) * PAGE_SIZE - 1);
+        lastPageCursor = CursorCodec.encode("products", beforeLastPage);
+    }
+
+    @Benchmark
+    public Page<ProductResponseDTO> offsetWithCount() {
+        return productService.getAllProducts(lastPage);
+    }
+
+    @Benchmark
+    public Slice<ProductResponseDTO> offsetWithoutCount() {
+        return productService.getAllProductsSlice(lastPage);
+    }
+
+    @Benchmark
+    public CursorPageResponseDTO<ProductResponseDTO> keyset() {
+        return productService.getProductsAfter(lastPageCursor, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,42 @@
+package com.smartinventory.inventory.benchmark;
+
+import com.smartinventory.inventory.dto.ProductResponseDTO;
+import com.smartinventory.inventory.service.ProductSearchIndex;
+import com.smartinventory.inventory.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First page of {@link ProductService#searchProducts(String, Pageable)} over the seeded catalog.
+ * "Product 1" matches about a tenth of the catalog, a full SKU-like name matches a single row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductSearchBenchmark {
+
+    @Param({"Product 1", "Product 777", "no-such-product"})
+    public String keyword;
+
+    private final Pageable firstPage = PageRequest.of(0, 20);
+    private ProductService productService;
+
+    @Setup(Level.Trial)
+    public void setUp(CatalogState catalog) {
+        productService = catalog.bean(ProductService.class);
+        // the catalog is seeded through the repositories after startup, so index it explicitly
+        catalog.bean(ProductSearchIndex.class).rebuild();
+    }
+
+    @Benchmark
+    public Page<ProductResponseDTO> searchProducts() {
+        return productService.searchProducts(keyword, firstPage);
+    }
+}
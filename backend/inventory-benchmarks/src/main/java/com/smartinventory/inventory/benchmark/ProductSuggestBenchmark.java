@@ -0,0 +1,38 @@
+package com.smartinventory.inventory.benchmark;
+
+import com.smartinventory.inventory.dto.ProductSuggestionDTO;
+import com.smartinventory.inventory.service.ProductSuggestIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead lookups on {@link ProductSuggestIndex} as a user types: a short prefix with many
+ * completions, a longer SKU prefix and a prefix that matches nothing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductSuggestBenchmark {
+
+    @Param({"pro", "sku-00007", "zzz"})
+    public String prefix;
+
+    private ProductSuggestIndex suggestIndex;
+
+    @Setup(Level.Trial)
+    public void setUp(CatalogState catalog) {
+        suggestIndex = catalog.bean(ProductSuggestIndex.class);
+        // the catalog is seeded through the repositories after startup, so index it explicitly
+        suggestIndex.rebuild();
+    }
+
+    @Benchmark
+    public List<ProductSuggestionDTO> suggest() {
+        return suggestIndex.suggest(prefix, 10);
+    }
+}
@@ -0,0 +1,87 @@
+package com.smartinventory.inventory.benchmark;
+
+import com.smartinventory.inventory.dto.*;
+import com.smartinventory.inventory.service.PurchaseOrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purchase order create and receive paths. The {@link LineCounter} aux counter reports
+ * throughput in PO lines per second next to the per-PO score.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PurchaseOrderBenchmark {
+
+    @Param({"10", "100", "500"})
+    public int linesPerOrder;
+
+    private PurchaseOrderService purchaseOrderService;
+    private PurchaseOrderRequestDTO createRequest;
+
+    @Setup(Level.Trial)
+    public void setUp(CatalogState catalog) {
+        if (catalog.suppliedProductIds.size() < linesPerOrder) {
+            throw new IllegalStateException("catalogSize " + catalog.catalogSize + " is too small for "
+                    + linesPerOrder + " lines from one supplier");
+        }
+        purchaseOrderService = catalog.bean(PurchaseOrderService.class);
+        List<PurchaseOrderLineRequestDTO> lines = new ArrayList<>(linesPerOrder);
+        for (int i = 0; i < linesPerOrder; i++) {
+            lines.add(new PurchaseOrderLineRequestDTO(catalog.suppliedProductIds.get(i), BigDecimal.valueOf(5)));
+        }
+        createRequest = new PurchaseOrderRequestDTO(catalog.supplier.getId(), lines);
+    }
+
+    @Benchmark
+    public PurchaseOrderResponseDTO createPurchaseOrder(LineCounter counter) {
+        PurchaseOrderResponseDTO response = purchaseOrderService.createPurchaseOrder(createRequest);
+        counter.lines += linesPerOrder;
+        return response;
+    }
+
+    @Benchmark
+    public PurchaseOrderResponseDTO receivePurchaseOrder(ReceiveState receive, LineCounter counter) {
+        PurchaseOrderResponseDTO response = purchaseOrderService.receivePurchaseOrder(receive.poId, receive.request);
+        counter.lines += linesPerOrder;
+        return response;
+    }
+
+    /**
+     * A fresh, unreceived PO for every receive invocation. Creating it is excluded from the score.
+     */
+    @State(Scope.Thread)
+    public static class ReceiveState {
+        Long poId;
+        PurchaseOrderReceiveRequestDTO request;
+
+        @Setup(Level.Invocation)
+        public void createOrder(PurchaseOrderBenchmark benchmark) {
+            PurchaseOrderResponseDTO po = benchmark.purchaseOrderService.createPurchaseOrder(benchmark.createRequest);
+            List<PurchaseOrderReceiveLineDTO> lines = po.lines().stream()
+                    .map(l -> new PurchaseOrderReceiveLineDTO(l.id(), l.quantity()))
+                    .toList();
+            poId = po.id();
+            request = new PurchaseOrderReceiveRequestDTO(lines, "BENCH");
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class LineCounter {
+        public long lines;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            lines = 0;
+        }
+    }
+}
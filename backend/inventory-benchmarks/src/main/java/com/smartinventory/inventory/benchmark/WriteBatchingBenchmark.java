@@ -0,0 +1,84 @@
+package com.smartinventory.inventory.benchmark;
+
+import com.smartinventory.inventory.dto.*;
+import com.smartinventory.inventory.service.PurchaseOrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows written per second for large POs and receipts, with and without JDBC insert batching
+ * ({@link WriteBatchingState#jdbcBatchSize}). Creating a PO writes the order plus one row per line;
+ * receiving it writes one stock movement per line and updates every line, product and the order.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WriteBatchingBenchmark {
+
+    @Param({"500"})
+    public int linesPerOrder;
+
+    private PurchaseOrderService purchaseOrderService;
+    private PurchaseOrderRequestDTO createRequest;
+
+    @Setup(Level.Trial)
+    public void setUp(WriteBatchingState catalog) {
+        if (catalog.suppliedProductIds.size() < linesPerOrder) {
+            throw new IllegalStateException("catalogSize " + catalog.catalogSize + " is too small for "
+                    + linesPerOrder + " lines");
+        }
+        purchaseOrderService = catalog.bean(PurchaseOrderService.class);
+        List<PurchaseOrderLineRequestDTO> lines = new ArrayList<>(linesPerOrder);
+        for (int i = 0; i < linesPerOrder; i++) {
+            lines.add(new PurchaseOrderLineRequestDTO(catalog.suppliedProductIds.get(i), BigDecimal.valueOf(5)));
+        }
+        createRequest = new PurchaseOrderRequestDTO(catalog.supplier.getId(), lines);
+    }
+
+    @Benchmark
+    public PurchaseOrderResponseDTO createLargeOrder(RowCounter counter) {
+        PurchaseOrderResponseDTO response = purchaseOrderService.createPurchaseOrder(createRequest);
+        counter.rows += linesPerOrder + 1;
+        return response;
+    }
+
+    @Benchmark
+    public PurchaseOrderResponseDTO receiveLargeOrder(ReceiveState receive, RowCounter counter) {
+        PurchaseOrderResponseDTO response = purchaseOrderService.receivePurchaseOrder(receive.poId, receive.request);
+        counter.rows += 3L * linesPerOrder + 1;
+        return response;
+    }
+
+    @State(Scope.Thread)
+    public static class ReceiveState {
+        Long poId;
+        PurchaseOrderReceiveRequestDTO request;
+
+        @Setup(Level.Invocation)
+        public void createOrder(WriteBatchingBenchmark benchmark) {
+            PurchaseOrderResponseDTO po = benchmark.purchaseOrderService.createPurchaseOrder(benchmark.createRequest);
+            poId = po.id();
+            request = new PurchaseOrderReceiveRequestDTO(po.lines().stream()
+                    .map(l -> new PurchaseOrderReceiveLineDTO(l.id(), l.quantity()))
+                    .toList(), "BENCH");
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter {
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.smartinventory.inventory.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Catalog state that boots the service with a given {@code hibernate.jdbc.batch_size}.
+ * A batch size of 1 is the unbatched "before" configuration.
+ */
+@State(Scope.Benchmark)
+public class WriteBatchingState extends CatalogState {
+
+    @Param({"1", "50"})
+    public int jdbcBatchSize;
+
+    @Override
+    protected List<String> extraArguments() {
+        return List.of("--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize);
+    }
+}
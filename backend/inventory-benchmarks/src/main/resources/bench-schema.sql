@@ -0,0 +1,2 @@
+-- objects the service expects but does not let Hibernate create
+CREATE SEQUENCE IF NOT EXISTS order_number_seq START WITH 1 INCREMENT BY 1;
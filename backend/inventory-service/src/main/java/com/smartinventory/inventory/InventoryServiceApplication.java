@@ -3,9 +3,11 @@ package com.smartinventory.inventory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaAuditing//  Enables createdAt & updatedAt
+@EnableScheduling// stock snapshots and other periodic jobs
 public class InventoryServiceApplication {
 
 	public static void main(String[] args) {
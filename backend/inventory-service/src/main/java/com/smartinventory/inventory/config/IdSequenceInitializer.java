@@ -0,0 +1,58 @@
+package com.smartinventory.inventory.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the pooled id sequences past the ids already in their tables.
+ * <p>
+ * Tables that used IDENTITY ids before switching to a pooled sequence already contain rows, while
+ * the sequence Hibernate creates starts at 1. Hibernate's pooled optimizer hands out the block
+ * {@code (value - allocationSize, value]} for every sequence value it reads, so a sequence is
+ * restarted at {@code max(id) + allocationSize} whenever its next block could overlap existing ids.
+ * The allocation size is the sequence's increment as the database has it, which is what the
+ * entity's {@code allocationSize} must match. Once aligned the check is a no-op apart from skipping
+ * one block per start.
+ */
+@Slf4j
+@Component
+// the schema, and the sequences, exist once the EntityManagerFactory is up
+@DependsOn("entityManagerFactory")
+public class IdSequenceInitializer {
+
+    // sequence -> table it generates ids for
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "product_seq", "product",
+            "purchase_order_line_seq", "purchase_order_line",
+            "stock_movement_seq", "stock_movement"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES.forEach(this::align);
+    }
+
+    private void align(String sequence, String table) {
+        Long allocationSize = jdbcTemplate.queryForObject("SELECT increment FROM information_schema.sequences"
+                + " WHERE sequence_schema = current_schema() AND sequence_name = ?", Long.class, sequence);
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        Long next = jdbcTemplate.queryForObject("SELECT nextval('" + sequence + "')", Long.class);
+        if (allocationSize == null || maxId == null || next == null || next - allocationSize >= maxId) {
+            return;
+        }
+        long restartWith = maxId + allocationSize;
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restartWith);
+        log.info("Restarted sequence {} at {} to clear existing ids in {}", sequence, restartWith, table);
+    }
+}
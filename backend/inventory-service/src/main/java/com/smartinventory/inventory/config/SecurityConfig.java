@@ -2,8 +2,8 @@ package com.smartinventory.inventory.config;
 
 import com.smartinventory.inventory.service.UserService;
 import com.smartinventory.inventory.util.JwtAuthenticationFilter;
-import com.smartinventory.inventory.util.JwtUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -27,14 +27,13 @@ import java.util.List;
 @Configuration
 public class SecurityConfig {
 
-    @Autowired
-    private JwtUtils jwtUtils;
     @Autowired
     private UserService userService;
+    @Autowired
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        JwtAuthenticationFilter jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtUtils, userService);
         http.csrf(AbstractHttpConfigurer::disable);
         http.cors(c -> c.configurationSource(corsConfigurationSource()));
         http.sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
@@ -49,9 +48,12 @@ public class SecurityConfig {
         return http.build();
     }
 
+    @Value("${inventory.auth.bcrypt-strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -77,6 +79,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
         authenticationProvider.setUserDetailsService(userService);
         authenticationProvider.setPasswordEncoder(passwordEncoder());
+        // re-hashes a user's password on login when its stored strength is below bcrypt-strength
+        authenticationProvider.setUserDetailsPasswordService(userService);
         return authenticationProvider;
     }
 
@@ -5,13 +5,22 @@ import com.smartinventory.inventory.dto.AuthResponseDTO;
 import com.smartinventory.inventory.dto.RegisterRequestDTO;
 import com.smartinventory.inventory.entity.*;
 import com.smartinventory.inventory.repository.UserRepository;
+import com.smartinventory.inventory.service.PasswordHashingExecutor;
+import com.smartinventory.inventory.service.RefreshTokenRevocationService;
+import com.smartinventory.inventory.service.TokenGenerationRegistry;
 import com.smartinventory.inventory.util.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.http.*;
 import org.springframework.security.authentication.*;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/auth")
@@ -20,65 +29,115 @@ public class AuthController {
     private final JwtUtils jwtUtil;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserDetailsService userDetailsService;
+    private final TokenGenerationRegistry tokenGenerations;
+    private final PasswordHashingExecutor passwordHashing;
+    private final RefreshTokenRevocationService revocations;
 
-    public AuthController(AuthenticationManager authManager, JwtUtils jwtUtil, UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public AuthController(AuthenticationManager authManager, JwtUtils jwtUtil, UserRepository userRepository, PasswordEncoder passwordEncoder,
+                          UserDetailsService userDetailsService, TokenGenerationRegistry tokenGenerations,
+                          PasswordHashingExecutor passwordHashing, RefreshTokenRevocationService revocations) {
         this.authManager = authManager;
         this.jwtUtil = jwtUtil;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userDetailsService = userDetailsService;
+        this.tokenGenerations = tokenGenerations;
+        this.passwordHashing = passwordHashing;
+        this.revocations = revocations;
     }
 
+    // BCrypt work (hashing here, verification in login) runs on the password-hashing pool, not the request thread
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody RegisterRequestDTO dto) {
-        if (userRepository.existsByUsername(dto.username())) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body("Username already taken");
-        }
-        if (userRepository.existsByEmail(dto.email())) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body("Email already used");
-        }
-        User u = User.builder()
-                .username(dto.username())
-                .email(dto.email())
-                .password(passwordEncoder.encode(dto.password()))
-                .roles(Set.of(Role.valueOf(dto.role()))) // ensure client uses ROLE_ADMIN etc.
-                .build();
-        userRepository.save(u);
-        return ResponseEntity.status(HttpStatus.CREATED).build();
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody RegisterRequestDTO dto) {
+        return passwordHashing.submit(() -> {
+            if (userRepository.existsByUsername(dto.username())) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("Username already taken");
+            }
+            if (userRepository.existsByEmail(dto.email())) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("Email already used");
+            }
+            User u = User.builder()
+                    .username(dto.username())
+                    .email(dto.email())
+                    .password(passwordEncoder.encode(dto.password()))
+                    .roles(Set.of(Role.valueOf(dto.role()))) // ensure client uses ROLE_ADMIN etc.
+                    .build();
+            userRepository.save(u);
+            return ResponseEntity.status(HttpStatus.CREATED).build();
+        });
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponseDTO> login(@RequestBody AuthRequestDTO dto) {
-        Authentication auth = authManager.authenticate(new UsernamePasswordAuthenticationToken(dto.username(), dto.password()));
-        var user = (org.springframework.security.core.userdetails.User) auth.getPrincipal();
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("roles", user.getAuthorities().stream().map(a -> a.getAuthority()).toList());
-        String access = jwtUtil.generateAccessToken(user.getUsername(), claims);
-        String refresh = jwtUtil.generateRefreshToken(user.getUsername());
-        long expiresIn = jwtUtil.extractExpiryDate(access).getTime() - System.currentTimeMillis();
-        return ResponseEntity.ok(new AuthResponseDTO(access, refresh, "Bearer", expiresIn));
+    public CompletableFuture<ResponseEntity<AuthResponseDTO>> login(@RequestBody AuthRequestDTO dto) {
+        return passwordHashing.submit(() -> {
+            Authentication auth = authManager.authenticate(new UsernamePasswordAuthenticationToken(dto.username(), dto.password()));
+            var user = (org.springframework.security.core.userdetails.User) auth.getPrincipal();
+            return ResponseEntity.ok(issueTokens(user, UUID.randomUUID().toString()));
+        });
     }
 
     @PostMapping("/refresh")
     public ResponseEntity<AuthResponseDTO> refresh(@RequestBody Map<String,String> body) {
         String refresh = body.get("refreshToken");
         try {
-            String username = jwtUtil.extractUsername(refresh);
-            // Optionally verify refresh token revoked
-            Map<String,Object> claims = new HashMap<>();
-            // load roles if needed from DB
-            String access = jwtUtil.generateAccessToken(username, claims);
-            String newRefresh = jwtUtil.generateRefreshToken(username);
-            long expiresIn = jwtUtil.extractExpiryDate(access).getTime() - System.currentTimeMillis();
-            return ResponseEntity.ok(new AuthResponseDTO(access, newRefresh, "Bearer", expiresIn));
+            var claims = jwtUtil.extractClaim(refresh);
+            String username = claims.getSubject();
+            String sessionId = claims.get(JwtUtils.SESSION_CLAIM, String.class);
+            if (!JwtUtils.REFRESH.equals(claims.get(JwtUtils.TYPE_CLAIM)) || sessionId == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            // a logout on this instance is in its filter at once, one on another instance after the next sync
+            if (revocations.mightBeRevoked(sessionId)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            if (!tokenGenerations.isCurrent(username, claims.get(TokenGenerationRegistry.CLAIM, Number.class))) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            // roles are re-read here, once per refresh, so requests can trust the access token's claims
+            return ResponseEntity.ok(issueTokens(userDetailsService.loadUserByUsername(username), sessionId));
+        } catch (Exception ex) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
+    // Logout everywhere: every access and refresh token issued to the user so far stops working
+    @PostMapping("/logout-all")
+    public ResponseEntity<?> logoutAll(@RequestBody Map<String,String> body) {
+        try {
+            var claims = jwtUtil.extractClaim(body.get("refreshToken"));
+            if (tokenGenerations.isCurrent(claims.getSubject(), claims.get(TokenGenerationRegistry.CLAIM, Number.class))) {
+                tokenGenerations.revokeAll(claims.getSubject());
+            }
+            return ResponseEntity.noContent().build();
         } catch (Exception ex) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
     }
 
-    // Logout: if you want true invalidation, persist refresh token and mark revoked (or put token in blacklist)
+    // every token of one login carries its session id, so logout can end all of them at once
+    private AuthResponseDTO issueTokens(UserDetails user, String sessionId) {
+        int generation = tokenGenerations.current(user.getUsername());
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("roles", user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        claims.put(TokenGenerationRegistry.CLAIM, generation);
+        claims.put(JwtUtils.SESSION_CLAIM, sessionId);
+        String access = jwtUtil.generateAccessToken(user.getUsername(), claims);
+        // a unique id keeps two refresh tokens issued in the same second apart
+        String refresh = jwtUtil.generateRefreshToken(user.getUsername(), Map.of(TokenGenerationRegistry.CLAIM, generation,
+                JwtUtils.SESSION_CLAIM, sessionId, Claims.ID, UUID.randomUUID().toString()));
+        // the token was just issued, so no need to parse it back for its expiry
+        return new AuthResponseDTO(access, refresh, "Bearer", jwtUtil.getAccessTokenValidityMs());
+    }
+
+    // Logout: ends the refresh token's session, including tokens refreshed from it; unknown or expired tokens are a no-op
     @PostMapping("/logout")
     public ResponseEntity<?> logout(@RequestBody Map<String,String> body) {
-        // Example: accept refresh token and blacklist it (requires DB/Redis)
+        try {
+            revocations.revoke(body.get("refreshToken"));
+        } catch (JwtException ex) {
+            // nothing left to revoke
+        }
         return ResponseEntity.noContent().build();
     }
 }
@@ -1,15 +1,44 @@
 package com.smartinventory.inventory.controller;
 
+import com.smartinventory.inventory.dto.AvailabilityResponseDTO;
+import com.smartinventory.inventory.dto.CacheStatsResponseDTO;
+import com.smartinventory.inventory.dto.CursorPageResponseDTO;
+import com.smartinventory.inventory.dto.DailyMovementResponseDTO;
+import com.smartinventory.inventory.dto.ProductImportResultDTO;
 import com.smartinventory.inventory.dto.ProductRequestDTO;
 import com.smartinventory.inventory.dto.ProductResponseDTO;
+import com.smartinventory.inventory.dto.ProductSuggestionDTO;
+import com.smartinventory.inventory.dto.StockAdjustmentRequestDTO;
+import com.smartinventory.inventory.dto.StockMovementResponseDTO;
+import com.smartinventory.inventory.dto.StockPositionResponseDTO;
+import com.smartinventory.inventory.entity.MovementType;
+import com.smartinventory.inventory.service.ExportService;
+import com.smartinventory.inventory.service.ProductImportService;
 import com.smartinventory.inventory.service.ProductService;
+import com.smartinventory.inventory.service.ProductSuggestIndex;
+import com.smartinventory.inventory.service.StockMovementService;
+import com.smartinventory.inventory.service.StockReservationService;
+import com.smartinventory.inventory.service.StockRollupService;
+import com.smartinventory.inventory.service.StockSnapshotService;
+import com.smartinventory.inventory.util.FileFormat;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -18,6 +47,20 @@ public class ProductController {
 
     @Autowired
     private ProductService productService;
+    @Autowired
+    private StockSnapshotService stockSnapshotService;
+    @Autowired
+    private StockRollupService stockRollupService;
+    @Autowired
+    private StockMovementService stockMovementService;
+    @Autowired
+    private StockReservationService stockReservationService;
+    @Autowired
+    private ProductSuggestIndex productSuggestIndex;
+    @Autowired
+    private ProductImportService productImportService;
+    @Autowired
+    private ExportService exportService;
 
 
     @PostMapping
@@ -25,27 +68,134 @@ public class ProductController {
                     return ResponseEntity.ok(productService.addProduct(productDTO));
     }
 
+    // Bulk import, streamed: CSV with a header row (name, sku, price, uom, quantity, description) or one JSON
+    // product per line. Bad rows are reported by row number and skipped; the rest of the file is imported.
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ProductImportResultDTO> importCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok(productImportService.importProducts(body, FileFormat.CSV));
+    }
+
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<ProductImportResultDTO> importNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(productImportService.importProducts(body, FileFormat.NDJSON));
+    }
+
+    // Streamed catalog export, e.g. /products/export?format=NDJSON; rows are sent as they are read, and a complete
+    // export ends with an X-Export-Rows trailer
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "CSV") FileFormat format,
+                                                        HttpServletRequest request, HttpServletResponse response) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + format.extension() + "\"")
+                .body(exportService.exportProducts(format, request, response));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponseDTO> getProductById(@PathVariable Long id) {
         return ResponseEntity.ok(productService.getProductById(id));
     }
 
+    @GetMapping("/sku/{sku}")
+    public ResponseEntity<ProductResponseDTO> getProductBySku(@PathVariable String sku) {
+        return ResponseEntity.ok(productService.getProductBySku(sku));
+    }
+
+    // Product cache hit/miss/eviction counters, for sizing inventory.product-cache.*
+    @GetMapping("/cache/stats")
+    public ResponseEntity<CacheStatsResponseDTO> getCacheStats() {
+        return ResponseEntity.ok(productService.getCacheStats());
+    }
+
+    // includeTotal=false skips the count(*) and omits totalElements/totalPages
     @GetMapping
-    public ResponseEntity<Page<ProductResponseDTO>> getAllProducts(Pageable pageable) {
-        return ResponseEntity.ok(productService.getAllProducts(pageable));
+    public ResponseEntity<Slice<ProductResponseDTO>> getAllProducts(Pageable pageable,
+                                                                    @RequestParam(defaultValue = "true") boolean includeTotal) {
+        return ResponseEntity.ok(includeTotal
+                ? productService.getAllProducts(pageable)
+                : productService.getAllProductsSlice(pageable));
     }
 
+    // Keyset paging: pass nextCursor from the previous response as ?cursor=
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageResponseDTO<ProductResponseDTO>> scrollProducts(
+            @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(productService.getProductsAfter(cursor, size));
+    }
+
+    // Ranked matches on name and SKU, keyword at least 3 characters, e.g. /products/search?keyword=bolt&page=0&size=20
     @GetMapping("/search")
-    public ResponseEntity<List<ProductResponseDTO>> searchProducts(@RequestParam String keyword) {
-        return ResponseEntity.ok(productService.searchProducts(keyword));
+    public ResponseEntity<Page<ProductResponseDTO>> searchProducts(@RequestParam String keyword, Pageable pageable) {
+        return ResponseEntity.ok(productService.searchProducts(keyword, pageable));
+    }
+
+    // Typeahead: products whose SKU or name starts with q, e.g. /products/suggest?q=sku-00&limit=10
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestionDTO>> suggest(@RequestParam String q,
+                                                              @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productSuggestIndex.suggest(q, limit));
+    }
+
+    // Stock position at a point in time (defaults to now)
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<StockPositionResponseDTO> getStockAsOf(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        return ResponseEntity.ok(stockSnapshotService.getStockAsOf(id, asOf));
+    }
+
+    @GetMapping("/stock")
+    public ResponseEntity<StockPositionResponseDTO> getStockAsOfBySku(
+            @RequestParam String sku,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        return ResponseEntity.ok(stockSnapshotService.getStockAsOfBySku(sku, asOf));
     }
 
+    // Movement history, newest first, in [from, to), optionally of some types
+    // (e.g. ?type=IN&type=OUT); pass nextCursor from the previous response as ?cursor=
+    @GetMapping("/{id}/movements")
+    public ResponseEntity<CursorPageResponseDTO<StockMovementResponseDTO>> getMovements(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(name = "type", required = false) List<MovementType> types,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(stockMovementService.getMovements(id, from, to, types, cursor, size));
+    }
+
+    // Daily IN / OUT / ADJUSTMENT totals, e.g. /products/1/movements/daily?from=2025-01-01&to=2025-01-31
+    // (both inclusive; defaults to the last 30 days)
+    @GetMapping("/{id}/movements/daily")
+    public ResponseEntity<List<DailyMovementResponseDTO>> getDailyMovements(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to == null ? LocalDate.now() : to;
+        LocalDate start = from == null ? end.minusDays(29) : from;
+        return ResponseEntity.ok(stockRollupService.getDailyMovements(id, start, end));
+    }
+
+    // Available-to-promise: on-hand minus active reservations
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<AvailabilityResponseDTO> getAvailability(@PathVariable Long id) {
+        return ResponseEntity.ok(stockReservationService.getAvailability(id));
+    }
+
+    // Catalog edit; quantity must be the current one (409 otherwise), stock moves through stock-adjustments
     @PutMapping("/{id}")
     public ResponseEntity<ProductResponseDTO> updateProduct(
             @PathVariable Long id, @Valid @RequestBody ProductRequestDTO productDTO) {
         return ResponseEntity.ok(productService.updateProduct(id, productDTO));
     }
 
+    // Signed on-hand correction, e.g. {"delta": -2, "note": "damaged"}; recorded as an ADJUSTMENT movement
+    @PostMapping("/{id}/stock-adjustments")
+    public ResponseEntity<ProductResponseDTO> adjustStock(
+            @PathVariable Long id, @Valid @RequestBody StockAdjustmentRequestDTO adjustment) {
+        return ResponseEntity.ok(productService.adjustStock(id, adjustment));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         productService.deleteProduct(id);
@@ -1,8 +1,14 @@
 package com.smartinventory.inventory.controller;
 
+import com.smartinventory.inventory.dto.CursorPageResponseDTO;
+import com.smartinventory.inventory.dto.PurchaseOrderReceiveRequestDTO;
 import com.smartinventory.inventory.dto.PurchaseOrderRequestDTO;
 import com.smartinventory.inventory.dto.PurchaseOrderResponseDTO;
+import com.smartinventory.inventory.dto.ReceivingSessionRequestDTO;
+import com.smartinventory.inventory.dto.ReceiptStatusResponseDTO;
+import com.smartinventory.inventory.dto.ReceivingSessionResponseDTO;
 import com.smartinventory.inventory.service.PurchaseOrderService;
+import com.smartinventory.inventory.service.ReceiptPipeline;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
@@ -18,6 +24,7 @@ import java.util.List;
 public class PurchaseOrderController {
 
     private final PurchaseOrderService purchaseOrderService;
+    private final ReceiptPipeline receiptPipeline;
 
     // Create new PO
     @PostMapping
@@ -39,12 +46,46 @@ public class PurchaseOrderController {
         return ResponseEntity.ok(purchaseOrderService.getAllPurchaseOrders(pageable));
     }
 
+    // Get POs by keyset: pass nextCursor from the previous response as ?cursor=
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageResponseDTO<PurchaseOrderResponseDTO>> scrollPurchaseOrders(
+            @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(purchaseOrderService.getPurchaseOrdersAfter(cursor, size));
+    }
+
     // Confirm PO
     @PutMapping("/{id}/confirm")
     public ResponseEntity<PurchaseOrderResponseDTO> confirmOrder(@PathVariable Long id) {
         return ResponseEntity.ok(purchaseOrderService.confirmOrder(id));
     }
 
+    // Receive lines of one PO (partial or full)
+    @PostMapping("/{id}/receive")
+    public ResponseEntity<PurchaseOrderResponseDTO> receivePurchaseOrder(
+            @PathVariable Long id, @Valid @RequestBody PurchaseOrderReceiveRequestDTO requestDTO) {
+        return ResponseEntity.ok(purchaseOrderService.receivePurchaseOrder(id, requestDTO));
+    }
+
+    // Receiving session: lines of many POs (e.g. one truck) in one transaction
+    @PostMapping("/receive")
+    public ResponseEntity<ReceivingSessionResponseDTO> receiveSession(
+            @Valid @RequestBody ReceivingSessionRequestDTO requestDTO) {
+        return ResponseEntity.ok(purchaseOrderService.receiveSession(requestDTO));
+    }
+
+    // Receive lines of one PO asynchronously: 202 once stored, applied shortly after with other receipts
+    @PostMapping("/{id}/receipts")
+    public ResponseEntity<ReceiptStatusResponseDTO> submitReceipt(
+            @PathVariable Long id, @Valid @RequestBody PurchaseOrderReceiveRequestDTO requestDTO) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(receiptPipeline.submit(id, requestDTO));
+    }
+
+    // Status of an asynchronous receipt: PENDING, APPLIED or FAILED (with the reason)
+    @GetMapping("/receipts/{receiptId}")
+    public ResponseEntity<ReceiptStatusResponseDTO> getReceiptStatus(@PathVariable Long receiptId) {
+        return ResponseEntity.ok(receiptPipeline.getStatus(receiptId));
+    }
+
     // Cancel PO
     @PutMapping("/{id}/cancel")
     public ResponseEntity<Void> cancelOrder(@PathVariable Long id) {
@@ -0,0 +1,50 @@
+package com.smartinventory.inventory.controller;
+
+import com.smartinventory.inventory.dto.PurchaseOrderRequestDTO;
+import com.smartinventory.inventory.dto.PurchaseOrderResponseDTO;
+import com.smartinventory.inventory.dto.ReplenishmentLineDTO;
+import com.smartinventory.inventory.dto.ReplenishmentRunResponseDTO;
+import com.smartinventory.inventory.service.ReplenishmentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/replenishment")
+@RequiredArgsConstructor
+public class ReplenishmentController {
+
+    private final ReplenishmentService replenishmentService;
+
+    // plan now instead of waiting for the nightly run
+    @PostMapping("/run")
+    public ResponseEntity<ReplenishmentRunResponseDTO> run() {
+        return ResponseEntity.ok(replenishmentService.run());
+    }
+
+    // latest run: one proposal per preferred supplier
+    @GetMapping
+    public ResponseEntity<ReplenishmentRunResponseDTO> getLatestRun() {
+        return ResponseEntity.ok(replenishmentService.getLatestRun());
+    }
+
+    @GetMapping("/suppliers/{supplierId}")
+    public ResponseEntity<List<ReplenishmentLineDTO>> getProposal(@PathVariable long supplierId) {
+        return ResponseEntity.ok(replenishmentService.getProposal(supplierId));
+    }
+
+    // the proposal as a POST /purchase-orders body, e.g. to edit before submitting
+    @GetMapping("/suppliers/{supplierId}/purchase-order-request")
+    public ResponseEntity<PurchaseOrderRequestDTO> getPurchaseOrderRequest(@PathVariable long supplierId) {
+        return ResponseEntity.ok(replenishmentService.toPurchaseOrderRequest(supplierId));
+    }
+
+    // creates the proposal as a draft purchase order
+    @PostMapping("/suppliers/{supplierId}/purchase-order")
+    public ResponseEntity<PurchaseOrderResponseDTO> createPurchaseOrder(@PathVariable long supplierId) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(replenishmentService.createPurchaseOrder(supplierId));
+    }
+}
@@ -0,0 +1,31 @@
+package com.smartinventory.inventory.controller;
+
+import com.smartinventory.inventory.dto.ReservationRequestDTO;
+import com.smartinventory.inventory.dto.ReservationResponseDTO;
+import com.smartinventory.inventory.service.StockReservationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/reservations")
+@RequiredArgsConstructor
+public class ReservationController {
+
+    private final StockReservationService stockReservationService;
+
+    // Reserve stock for an order
+    @PostMapping
+    public ResponseEntity<ReservationResponseDTO> reserve(@Valid @RequestBody ReservationRequestDTO requestDTO) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(stockReservationService.reserve(requestDTO));
+    }
+
+    // Release a reservation before it expires
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> release(@PathVariable String id) {
+        stockReservationService.release(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.smartinventory.inventory.controller;
+
+import com.smartinventory.inventory.service.ExportService;
+import com.smartinventory.inventory.util.FileFormat;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/stock-movements")
+@RequiredArgsConstructor
+public class StockMovementController {
+
+    private final ExportService exportService;
+
+    // Streamed ledger export, e.g. /stock-movements/export?format=NDJSON&productId=7&from=2025-01-01T00:00:00
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "CSV") FileFormat format,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletRequest request, HttpServletResponse response) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"stock-movements." + format.extension() + "\"")
+                .body(exportService.exportStockMovements(format, productId, from, to, request, response));
+    }
+}
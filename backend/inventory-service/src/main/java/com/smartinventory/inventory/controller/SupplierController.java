@@ -1,5 +1,6 @@
 package com.smartinventory.inventory.controller;
 
+import com.smartinventory.inventory.dto.CursorPageResponseDTO;
 import com.smartinventory.inventory.dto.SupplierRequestDTO;
 import com.smartinventory.inventory.dto.SupplierResponseDTO;
 import com.smartinventory.inventory.service.SupplierService;
@@ -28,6 +29,12 @@ public class SupplierController {
     public ResponseEntity<List<SupplierResponseDTO>> getAllSupplier(Pageable pageable){
         return ResponseEntity.ok(supplierService.getAllSupplier(pageable));
     }
+    // Keyset paging: pass nextCursor from the previous response as ?cursor=
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageResponseDTO<SupplierResponseDTO>> scrollSuppliers(
+            @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size){
+        return ResponseEntity.ok(supplierService.getSuppliersAfter(cursor, size));
+    }
     @GetMapping("/{id}")
     public  ResponseEntity<SupplierResponseDTO> getSupplierById(@PathVariable Long id){
         return ResponseEntity.ok(supplierService.getSupplierById(id));
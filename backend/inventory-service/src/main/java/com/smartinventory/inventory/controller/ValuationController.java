@@ -0,0 +1,27 @@
+package com.smartinventory.inventory.controller;
+
+import com.smartinventory.inventory.dto.InventoryValuationResponseDTO;
+import com.smartinventory.inventory.service.InventoryValuationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/valuation")
+@RequiredArgsConstructor
+public class ValuationController {
+
+    private final InventoryValuationService inventoryValuationService;
+
+    // total stock value, overall, by unit of measure and by preferred supplier
+    @GetMapping
+    public ResponseEntity<InventoryValuationResponseDTO> getValuation() {
+        return ResponseEntity.ok(inventoryValuationService.getValuation());
+    }
+
+    // rebuilds the totals from the catalog, e.g. after changes made directly in the database
+    @PostMapping("/recompute")
+    public ResponseEntity<InventoryValuationResponseDTO> recompute() {
+        return ResponseEntity.ok(inventoryValuationService.recompute());
+    }
+}
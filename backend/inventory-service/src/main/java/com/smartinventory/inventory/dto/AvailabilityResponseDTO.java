@@ -0,0 +1,10 @@
+package com.smartinventory.inventory.dto;
+
+import java.math.BigDecimal;
+
+public record AvailabilityResponseDTO(
+        Long productId,
+        BigDecimal onHand,
+        BigDecimal reserved,
+        BigDecimal available    // onHand - reserved
+) {}
@@ -0,0 +1,12 @@
+package com.smartinventory.inventory.dto;
+
+public record CacheStatsResponseDTO(
+        long size,
+        long maximumSize,
+        long hitCount,
+        long missCount,
+        double hitRate,
+        long loadCount,
+        double averageLoadMillis,
+        long evictionCount  // removed by size or age, not by invalidation
+) {}
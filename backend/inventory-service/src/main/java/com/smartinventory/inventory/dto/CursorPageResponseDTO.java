@@ -0,0 +1,22 @@
+package com.smartinventory.inventory.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+public record CursorPageResponseDTO<T>(
+        List<T> content,
+        int size,
+        String nextCursor,  // pass back as ?cursor= for the next page; null on the last page
+        boolean hasNext
+) {
+    /**
+     * Builds a page from {@code size + 1} fetched rows; the extra row only signals that there is a next page.
+     */
+    public static <E, T> CursorPageResponseDTO<T> of(List<E> rows, int size, Function<E, T> mapper,
+                                                     Function<E, String> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<E> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(page.get(page.size() - 1)) : null;
+        return new CursorPageResponseDTO<>(page.stream().map(mapper).toList(), size, nextCursor, hasNext);
+    }
+}
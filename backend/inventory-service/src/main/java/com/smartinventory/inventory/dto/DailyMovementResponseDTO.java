@@ -0,0 +1,12 @@
+package com.smartinventory.inventory.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record DailyMovementResponseDTO(
+        LocalDate date,
+        BigDecimal inQuantity,
+        BigDecimal outQuantity,
+        BigDecimal adjustmentQuantity,
+        long movementCount
+) {}
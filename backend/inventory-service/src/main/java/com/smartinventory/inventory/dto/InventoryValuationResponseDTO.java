@@ -0,0 +1,13 @@
+package com.smartinventory.inventory.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record InventoryValuationResponseDTO(
+        BigDecimal totalValue,      // sum of quantity * price over active products
+        long productCount,
+        List<UomValuationDTO> byUom,
+        List<SupplierValuationDTO> bySupplier,
+        LocalDateTime recomputedAt  // last full recompute; changes since then were applied incrementally
+) {}
@@ -0,0 +1,8 @@
+package com.smartinventory.inventory.dto;
+
+// row is the 1-based data row (CSV, header excluded) or line (NDJSON) of the import file
+public record ProductImportErrorDTO(
+        long row,
+        String sku,
+        String message
+) {}
@@ -0,0 +1,11 @@
+package com.smartinventory.inventory.dto;
+
+import java.util.List;
+
+public record ProductImportResultDTO(
+        long received,
+        long imported,
+        long failed,
+        List<ProductImportErrorDTO> errors,
+        boolean errorsTruncated   // more rows failed than the report keeps; see failed for the count
+) {}
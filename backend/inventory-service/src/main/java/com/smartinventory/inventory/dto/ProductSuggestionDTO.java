@@ -0,0 +1,7 @@
+package com.smartinventory.inventory.dto;
+
+public record ProductSuggestionDTO(
+        Long id,
+        String sku,
+        String name
+) {}
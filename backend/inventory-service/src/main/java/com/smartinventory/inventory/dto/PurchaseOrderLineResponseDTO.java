@@ -5,8 +5,11 @@ import java.math.BigDecimal;
 public record PurchaseOrderLineResponseDTO(
         long id,
         long productId,
+        String sku,
+        String productName,
         BigDecimal quantity,         // ordered qty
         BigDecimal price,            // unit price
+        BigDecimal subtotal,
         BigDecimal receivedQuantity, // how much received so far
         String lineStatus            // PENDING / PARTIALLY_RECEIVED / RECEIVED
 ) { }
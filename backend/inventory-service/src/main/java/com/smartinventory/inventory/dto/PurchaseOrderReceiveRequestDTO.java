@@ -1,11 +1,15 @@
 package com.smartinventory.inventory.dto;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 
 import java.math.BigDecimal;
 import java.util.List;
 
 public record PurchaseOrderReceiveRequestDTO(
+        @NotEmpty(message = "At least one line is required")
+        @Valid
         List<PurchaseOrderReceiveLineDTO> lines,
         String receiptNumber  // optional
 ) {}
@@ -1,5 +1,6 @@
 package com.smartinventory.inventory.dto;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -7,8 +8,10 @@ public record PurchaseOrderResponseDTO(
         Long id,
         String orderNumber,
         Long supplierId,
+        String supplierName,
         LocalDateTime orderDate,
         String orderStatus,
+        BigDecimal totalAmount,
         List<PurchaseOrderLineResponseDTO> lines
 ) { }
 
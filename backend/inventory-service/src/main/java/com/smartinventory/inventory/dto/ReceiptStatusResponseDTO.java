@@ -0,0 +1,13 @@
+package com.smartinventory.inventory.dto;
+
+import java.time.LocalDateTime;
+
+public record ReceiptStatusResponseDTO(
+        Long receiptId,
+        Long purchaseOrderId,
+        String receiptNumber,
+        String status,        // PENDING, APPLIED or FAILED
+        String message,       // why a FAILED receipt was rejected
+        LocalDateTime acceptedAt,
+        LocalDateTime processedAt
+) {}
@@ -0,0 +1,15 @@
+package com.smartinventory.inventory.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record ReceivingSessionOrderDTO(
+        @NotNull(message = "Purchase order ID is required")
+        Long purchaseOrderId,
+        @NotEmpty(message = "At least one line is required")
+        @Valid
+        List<PurchaseOrderReceiveLineDTO> lines
+) {}
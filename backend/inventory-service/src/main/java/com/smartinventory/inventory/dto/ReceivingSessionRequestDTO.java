@@ -0,0 +1,13 @@
+package com.smartinventory.inventory.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record ReceivingSessionRequestDTO(
+        String receiptNumber,  // optional, e.g. the truck's delivery note
+        @NotEmpty(message = "At least one purchase order is required")
+        @Valid
+        List<ReceivingSessionOrderDTO> orders
+) {}
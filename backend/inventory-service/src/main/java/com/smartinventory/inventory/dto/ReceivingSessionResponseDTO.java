@@ -0,0 +1,8 @@
+package com.smartinventory.inventory.dto;
+
+import java.util.List;
+
+public record ReceivingSessionResponseDTO(
+        String receiptNumber,
+        List<PurchaseOrderResponseDTO> orders
+) {}
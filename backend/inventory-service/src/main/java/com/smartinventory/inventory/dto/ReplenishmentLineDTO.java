@@ -0,0 +1,14 @@
+package com.smartinventory.inventory.dto;
+
+import java.math.BigDecimal;
+
+public record ReplenishmentLineDTO(
+        Long productId,
+        BigDecimal onHand,
+        BigDecimal onOrder,         // ordered on open purchase orders, not yet received
+        BigDecimal dailyDemand,     // average OUT quantity per day over the demand window
+        int leadTimeDays,
+        BigDecimal reorderPoint,
+        BigDecimal quantity,        // proposed order quantity
+        BigDecimal unitPrice        // preferred supplier's price
+) {}
@@ -0,0 +1,9 @@
+package com.smartinventory.inventory.dto;
+
+import java.math.BigDecimal;
+
+public record ReplenishmentProposalDTO(
+        long supplierId,
+        int lineCount,
+        BigDecimal estimatedTotal
+) {}
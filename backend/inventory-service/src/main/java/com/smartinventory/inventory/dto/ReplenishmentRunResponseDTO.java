@@ -0,0 +1,11 @@
+package com.smartinventory.inventory.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ReplenishmentRunResponseDTO(
+        LocalDateTime generatedAt,
+        long productsScanned,       // active products with a preferred supplier
+        long durationMs,
+        List<ReplenishmentProposalDTO> proposals    // one draft purchase order per preferred supplier
+) {}
@@ -0,0 +1,21 @@
+package com.smartinventory.inventory.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+
+public record ReservationRequestDTO(
+        @NotNull(message = "Product ID is required")
+        Long productId,
+        @NotNull(message = "Quantity is required")
+        @DecimalMin(value = "0.0001", message = "Quantity must be > 0")
+        BigDecimal quantity,
+        @Min(value = 1, message = "TTL must be at least 1 second")
+        Long ttlSeconds,        // optional, defaults to inventory.reservation.default-ttl-seconds
+        @Size(max = 20, message = "Reference type must be at most 20 characters")
+        String referenceType,   // optional, e.g. "ORDER"
+        Long referenceId        // optional
+) {}
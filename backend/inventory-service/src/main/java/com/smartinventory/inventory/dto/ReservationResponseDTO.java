@@ -0,0 +1,12 @@
+package com.smartinventory.inventory.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record ReservationResponseDTO(
+        String reservationId,
+        Long productId,
+        BigDecimal quantity,
+        LocalDateTime expiresAt,
+        BigDecimal available    // available-to-promise after this reservation
+) {}
@@ -0,0 +1,13 @@
+package com.smartinventory.inventory.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+
+public record StockAdjustmentRequestDTO(
+        @NotNull(message = "Delta is required")
+        BigDecimal delta,   // signed: positive adds stock, negative removes it
+        @Size(max = 500, message = "Note must be at most 500 characters")
+        String note         // optional
+) {}
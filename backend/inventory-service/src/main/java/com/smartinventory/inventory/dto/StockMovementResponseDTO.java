@@ -0,0 +1,15 @@
+package com.smartinventory.inventory.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record StockMovementResponseDTO(
+        Long id,
+        Long productId,
+        String movementType,
+        BigDecimal quantity,
+        String referenceType,
+        Long referenceId,
+        LocalDateTime createdAt,
+        String note
+) {}
@@ -0,0 +1,12 @@
+package com.smartinventory.inventory.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record StockPositionResponseDTO(
+        Long productId,
+        String sku,
+        LocalDateTime asOf,
+        BigDecimal quantity,
+        LocalDateTime snapshotAt    // snapshot the position was derived from (null = current quantity)
+) {}
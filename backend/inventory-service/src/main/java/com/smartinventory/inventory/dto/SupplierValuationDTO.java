@@ -0,0 +1,9 @@
+package com.smartinventory.inventory.dto;
+
+import java.math.BigDecimal;
+
+public record SupplierValuationDTO(
+        Long supplierId,    // preferred supplier; null for products without one
+        BigDecimal value,
+        long productCount
+) {}
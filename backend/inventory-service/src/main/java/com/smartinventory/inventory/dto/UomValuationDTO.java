@@ -0,0 +1,9 @@
+package com.smartinventory.inventory.dto;
+
+import java.math.BigDecimal;
+
+public record UomValuationDTO(
+        String uom,
+        BigDecimal value,
+        long productCount
+) {}
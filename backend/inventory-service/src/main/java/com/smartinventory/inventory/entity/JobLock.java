@@ -0,0 +1,30 @@
+package com.smartinventory.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease on a scheduled job, so a job scheduled on every instance runs on one at a time. The instance whose
+ * update moves {@code locked_until} forward holds the lease until it releases it or the time passes.
+ */
+@Entity
+@Table(name = "job_lock")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobLock {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "locked_by", nullable = false, length = 100)
+    private String lockedBy;
+}
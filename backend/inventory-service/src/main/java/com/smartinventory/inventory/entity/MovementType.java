@@ -1,9 +1,20 @@
 package com.smartinventory.inventory.entity;
 
 public enum MovementType {
-    IN,         // incoming stock (PO receive)
-    OUT,        // outgoing stock (sales, shipments)
-    ADJUSTMENT, // manual admin adjustments
-    RESERVE,    // reserved for an order
-    RELEASE     // release reservation
+    IN(1),          // incoming stock (PO receive)
+    OUT(-1),        // outgoing stock (sales, shipments)
+    ADJUSTMENT(1),  // stock set outside receipts: opening stock, manual corrections; quantity carries the sign
+    RESERVE(0),     // reserved for an order
+    RELEASE(0);     // release reservation
+
+    // effect of a movement of this type on on-hand stock; reservations don't move stock
+    private final int stockSign;
+
+    MovementType(int stockSign) {
+        this.stockSign = stockSign;
+    }
+
+    public int getStockSign() {
+        return stockSign;
+    }
 }
@@ -3,6 +3,7 @@ package com.smartinventory.inventory.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.Where;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
@@ -21,11 +22,14 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Where(clause = "active = true")
+@DynamicUpdate // catalog edits only write changed columns; quantity itself only moves through update deltas
 @EntityListeners(AuditingEntityListener.class) //  Enables auditing
 public class Product {
 
+    // pooled sequence so bulk imports can batch their inserts; IDENTITY forces one round trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -62,7 +66,7 @@ public class Product {
 
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt;
-    // optimistic locking for quantity updates
+    // optimistic locking for catalog edits; stock receipts use atomic deltas and leave it alone
     @Version
     private Long version;
 
@@ -5,13 +5,17 @@ import jakarta.validation.constraints.NotNull;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
 @Entity
-@Table(name = "purchase_order")
+@Table(name = "purchase_order", uniqueConstraints = {
+        // one order per supplier from each day's replenishment proposals, across instances
+        @UniqueConstraint(name = "uk_po_supplier_replenishment", columnNames = {"supplier_id", "replenishment_date"})
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -34,6 +38,8 @@ public class PurchaseOrder {
     private LocalDateTime expectedDate;
     @Column(precision = 15, scale = 2)
     private BigDecimal totalAmount;
+    // day of the replenishment run the order was created from; null for orders entered by hand
+    private LocalDate replenishmentDate;
 
     @OneToMany(mappedBy = "purchaseOrder" ,cascade = CascadeType.ALL , orphanRemoval = true)
     private List<PurchaseOrderLine> purchaseOrderLineList=new ArrayList<>();
@@ -8,7 +8,7 @@ import lombok.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "purchase_order_line")
+@Table(name = "purchase_order_line", indexes = @Index(name = "idx_pol_product", columnList = "product_id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,8 +16,10 @@ import java.math.BigDecimal;
 @Builder
 public class PurchaseOrderLine {
 
+    // pooled sequence instead of IDENTITY so Hibernate can batch the inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchase_order_line_seq")
+    @SequenceGenerator(name = "purchase_order_line_seq", sequenceName = "purchase_order_line_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
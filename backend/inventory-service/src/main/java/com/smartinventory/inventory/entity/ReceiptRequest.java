@@ -0,0 +1,51 @@
+package com.smartinventory.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A receipt accepted by the asynchronous receive endpoint. Stored before it is acknowledged, so an
+ * acknowledged receipt survives a restart; it is applied to stock later and its status updated in the same
+ * transaction.
+ */
+@Entity
+@Table(name = "receipt_request", indexes = {
+        @Index(name = "idx_rr_status", columnList = "status,id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReceiptRequest {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "receipt_request_seq")
+    @SequenceGenerator(name = "receipt_request_seq", sequenceName = "receipt_request_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "purchase_order_id", nullable = false)
+    private Long purchaseOrderId;
+
+    @Column(name = "receipt_number", length = 100)
+    private String receiptNumber;
+
+    // the receive lines as JSON
+    @Column(nullable = false, columnDefinition = "text")
+    private String lines;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReceiptStatus status;
+
+    @Column(length = 500)
+    private String message;
+
+    @Column(name = "accepted_at", nullable = false)
+    private LocalDateTime acceptedAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,8 @@
+package com.smartinventory.inventory.entity;
+
+public enum ReceiptStatus {
+    PENDING,    // acknowledged and stored, not applied yet
+    APPLYING,   // claimed by a writer; only visible inside the transaction applying it
+    APPLIED,
+    FAILED      // rejected when applied, see the receipt's message
+}
@@ -0,0 +1,38 @@
+package com.smartinventory.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A login session revoked before its expiry (logout): every access and refresh token carrying its session id
+ * stops working. Keyed by the SHA-256 of the session id; the row is deleted once every token of the session
+ * would have expired anyway.
+ */
+@Entity
+@Table(name = "revoked_token", indexes = {
+        @Index(name = "idx_rt_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_rt_revoked_at", columnList = "revoked_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken {
+
+    // the column name predates revoking whole sessions
+    @Id
+    @Column(name = "token_digest", length = 44)
+    private String sessionDigest;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+}
@@ -0,0 +1,54 @@
+package com.smartinventory.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * IN / OUT / ADJUSTMENT totals of one product on one calendar day, built from stock_movement once the day
+ * is over. Periods older than the last rolled-up day are answered from these rows instead of the raw
+ * ledger, which is what allows old stock_movement partitions to be archived.
+ */
+@Entity
+@Table(name = "stock_daily_rollup", indexes = {
+        @Index(name = "idx_sdr_date", columnList = "rollup_date")
+})
+@IdClass(StockDailyRollup.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockDailyRollup {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Id
+    @Column(name = "rollup_date")
+    private LocalDate rollupDate;
+
+    @Column(name = "in_quantity", nullable = false, precision = 19, scale = 4)
+    private BigDecimal inQuantity;
+
+    @Column(name = "out_quantity", nullable = false, precision = 19, scale = 4)
+    private BigDecimal outQuantity;
+
+    @Column(name = "adjustment_quantity", nullable = false, precision = 19, scale = 4)
+    private BigDecimal adjustmentQuantity;
+
+    @Column(name = "movement_count", nullable = false)
+    private long movementCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long productId;
+        private LocalDate rollupDate;
+    }
+}
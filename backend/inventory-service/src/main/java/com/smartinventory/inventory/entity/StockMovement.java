@@ -8,7 +8,9 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "stock_movement", indexes = {
         @Index(name = "idx_sm_product", columnList = "product_id"),
-        @Index(name = "idx_sm_ref", columnList = "reference_type,reference_id")
+        @Index(name = "idx_sm_ref", columnList = "reference_type,reference_id"),
+        @Index(name = "idx_sm_product_created_id", columnList = "product_id,created_at DESC,id DESC"),
+        @Index(name = "idx_sm_created", columnList = "created_at")
 })
 @Getter
 @Setter
@@ -17,8 +19,10 @@ import java.time.LocalDateTime;
 @Builder
 public class StockMovement {
 
+    // pooled sequence instead of IDENTITY so Hibernate can batch the inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movement_seq")
+    @SequenceGenerator(name = "stock_movement_seq", sequenceName = "stock_movement_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -29,7 +33,7 @@ public class StockMovement {
     @Column(nullable = false, length = 20)
     private MovementType movementType;
 
-    // Always positive. Sign implied by movementType
+    // Positive, sign implied by movementType; ADJUSTMENT quantities are signed (negative for decreases)
     @Column(nullable = false, precision = 15, scale = 4)
     private BigDecimal quantity;
 
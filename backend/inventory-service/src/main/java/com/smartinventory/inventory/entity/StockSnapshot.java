@@ -0,0 +1,39 @@
+package com.smartinventory.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * On-hand quantity of a product at a point in time. Taken periodically so historical stock can be
+ * answered from the nearest snapshot plus the stock_movement delta instead of replaying the ledger.
+ */
+@Entity
+@Table(name = "stock_snapshot", uniqueConstraints = {
+        // also the index of the as-of lookups
+        @UniqueConstraint(name = "uk_ss_product_time", columnNames = {"product_id", "snapshot_at"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_snapshot_seq")
+    @SequenceGenerator(name = "stock_snapshot_seq", sequenceName = "stock_snapshot_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(nullable = false, precision = 15, scale = 4)
+    private BigDecimal quantity;
+
+    @Column(name = "snapshot_at", nullable = false)
+    private LocalDateTime snapshotAt;
+}
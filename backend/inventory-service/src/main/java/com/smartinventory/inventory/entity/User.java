@@ -2,6 +2,7 @@ package com.smartinventory.inventory.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -30,4 +31,9 @@ public class User {
     @Enumerated(EnumType.STRING)
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
     private Set<Role> roles;
+    // bumped by "log out everywhere"; tokens carrying an older generation are rejected
+    @Column(name = "token_generation", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private int tokenGeneration = 0;
 }
@@ -0,0 +1,10 @@
+package com.smartinventory.inventory.event;
+
+import com.smartinventory.inventory.dto.ProductResponseDTO;
+
+/**
+ * A product was created, edited, soft deleted ({@code removed = true}) or restored.
+ * Carries the product as written so in-memory indexes don't have to reload it.
+ */
+public record ProductChangedEvent(ProductResponseDTO product, boolean removed) {
+}
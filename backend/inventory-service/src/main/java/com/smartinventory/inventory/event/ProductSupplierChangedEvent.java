@@ -0,0 +1,9 @@
+package com.smartinventory.inventory.event;
+
+/**
+ * The mapping of a product to a supplier was added, changed or removed, or all of the product's mappings count
+ * again after a restore ({@code supplierId == null}). Published inside the writing transaction, like
+ * {@link StockChangedEvent}.
+ */
+public record ProductSupplierChangedEvent(Long productId, Long supplierId) {
+}
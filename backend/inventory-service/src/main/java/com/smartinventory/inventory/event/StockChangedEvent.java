@@ -0,0 +1,10 @@
+package com.smartinventory.inventory.event;
+
+import java.math.BigDecimal;
+
+/**
+ * On-hand quantity of a product changed by {@code delta}. Published inside the writing transaction;
+ * in-memory listeners should use {@code @TransactionalEventListener} so they only see committed changes.
+ */
+public record StockChangedEvent(Long productId, BigDecimal delta) {
+}
@@ -0,0 +1,7 @@
+package com.smartinventory.inventory.exception;
+
+public class AuthBusyException extends RuntimeException {
+    public AuthBusyException(String message) {
+        super(message);
+    }
+}
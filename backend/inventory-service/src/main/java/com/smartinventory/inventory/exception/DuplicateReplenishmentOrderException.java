@@ -0,0 +1,7 @@
+package com.smartinventory.inventory.exception;
+
+public class DuplicateReplenishmentOrderException extends RuntimeException {
+    public DuplicateReplenishmentOrderException(String message) {
+        super(message);
+    }
+}
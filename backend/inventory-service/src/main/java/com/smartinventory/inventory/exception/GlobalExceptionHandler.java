@@ -1,6 +1,7 @@
 package com.smartinventory.inventory.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -46,11 +47,31 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(HttpStatus.CONFLICT, "Duplicate SKU", ex.getMessage(), request);
     }
 
+    @ExceptionHandler(StaleQuantityException.class)
+    public ResponseEntity<ErrorResponse> handleStaleQuantity(StaleQuantityException ex, HttpServletRequest request) {
+        return buildErrorResponse(HttpStatus.CONFLICT, "Stale Quantity", ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ErrorResponse> handleInsufficientStock(InsufficientStockException ex, HttpServletRequest request) {
+        return buildErrorResponse(HttpStatus.CONFLICT, "Insufficient Stock", ex.getMessage(), request);
+    }
+
     @ExceptionHandler(InvalidUnitOfMeasureException.class)
     public ResponseEntity<ErrorResponse> handleInvalidUOM(InvalidUnitOfMeasureException ex, HttpServletRequest request) {
         return buildErrorResponse(HttpStatus.BAD_REQUEST, "Invalid Unit of Measure", ex.getMessage(), request);
     }
 
+    @ExceptionHandler(InvalidSearchQueryException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidSearchQuery(InvalidSearchQueryException ex, HttpServletRequest request) {
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, "Invalid Search Query", ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(InvalidImportFileException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidImportFile(InvalidImportFileException ex, HttpServletRequest request) {
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, "Invalid Import File", ex.getMessage(), request);
+    }
+
     // ✅ Supplier-specific
     @ExceptionHandler(SupplierNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleSupplierNotFound(SupplierNotFoundException ex, HttpServletRequest request) {
@@ -68,6 +89,27 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(HttpStatus.NOT_FOUND, "Purchase Order Not Found", ex.getMessage(), request);
     }
 
+    @ExceptionHandler(ReceiptNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleReceiptNotFound(ReceiptNotFoundException ex, HttpServletRequest request) {
+        return buildErrorResponse(HttpStatus.NOT_FOUND, "Receipt Not Found", ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(ReplenishmentProposalNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleReplenishmentProposalNotFound(ReplenishmentProposalNotFoundException ex, HttpServletRequest request) {
+        return buildErrorResponse(HttpStatus.NOT_FOUND, "Replenishment Proposal Not Found", ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(DuplicateReplenishmentOrderException.class)
+    public ResponseEntity<ErrorResponse> handleDuplicateReplenishmentOrder(DuplicateReplenishmentOrderException ex, HttpServletRequest request) {
+        return buildErrorResponse(HttpStatus.CONFLICT, "Duplicate Replenishment Order", ex.getMessage(), request);
+    }
+
+    @ExceptionHandler(ReceiptBacklogFullException.class)
+    public ResponseEntity<ErrorResponse> handleReceiptBacklogFull(ReceiptBacklogFullException ex, HttpServletRequest request) {
+        ResponseEntity<ErrorResponse> response = buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Service Busy", ex.getMessage(), request);
+        return ResponseEntity.status(response.getStatusCode()).header(HttpHeaders.RETRY_AFTER, "1").body(response.getBody());
+    }
+
     @ExceptionHandler(InvalidSupplierProductRelationException.class)
     public ResponseEntity<ErrorResponse> handleInvalidSupplierProduct(InvalidSupplierProductRelationException ex, HttpServletRequest request) {
         return buildErrorResponse(HttpStatus.BAD_REQUEST, "Invalid Supplier-Product Relation", ex.getMessage(), request);
@@ -83,6 +125,25 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(HttpStatus.BAD_REQUEST, "Invalid Order State", ex.getMessage(), request);
     }
 
+    // ✅ Reservation-specific
+    @ExceptionHandler(ReservationNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleReservationNotFound(ReservationNotFoundException ex, HttpServletRequest request) {
+        return buildErrorResponse(HttpStatus.NOT_FOUND, "Reservation Not Found", ex.getMessage(), request);
+    }
+
+    // ✅ Paging
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursor(InvalidCursorException ex, HttpServletRequest request) {
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, "Invalid Cursor", ex.getMessage(), request);
+    }
+
+    // ✅ Auth
+    @ExceptionHandler(AuthBusyException.class)
+    public ResponseEntity<ErrorResponse> handleAuthBusy(AuthBusyException ex, HttpServletRequest request) {
+        ResponseEntity<ErrorResponse> response = buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Service Busy", ex.getMessage(), request);
+        return ResponseEntity.status(response.getStatusCode()).header(HttpHeaders.RETRY_AFTER, "1").body(response.getBody());
+    }
+
     // ✅ Generic fallback
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex, HttpServletRequest request) {
@@ -0,0 +1,7 @@
+package com.smartinventory.inventory.exception;
+
+public class ReceiptBacklogFullException extends RuntimeException {
+    public ReceiptBacklogFullException(String message) {
+        super(message);
+    }
+}
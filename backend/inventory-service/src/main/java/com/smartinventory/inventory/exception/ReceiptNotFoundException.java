@@ -0,0 +1,7 @@
+package com.smartinventory.inventory.exception;
+
+public class ReceiptNotFoundException extends RuntimeException {
+    public ReceiptNotFoundException(String message) {
+        super(message);
+    }
+}
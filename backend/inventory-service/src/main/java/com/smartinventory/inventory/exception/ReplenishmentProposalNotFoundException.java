@@ -0,0 +1,7 @@
+package com.smartinventory.inventory.exception;
+
+public class ReplenishmentProposalNotFoundException extends RuntimeException {
+    public ReplenishmentProposalNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.smartinventory.inventory.exception;
+
+public class StaleQuantityException extends RuntimeException {
+    public StaleQuantityException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,28 @@
+package com.smartinventory.inventory.repository;
+
+import com.smartinventory.inventory.entity.JobLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+    // takes the lease if it has run out; 1 when taken. The row lock makes racing instances take turns.
+    @Modifying
+    @Query("update JobLock j set j.lockedUntil = :until, j.lockedBy = :owner where j.name = :name and j.lockedUntil <= :now")
+    int acquire(@Param("name") String name, @Param("owner") String owner,
+                @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    // a plain insert, which fails on a name that exists (save() would merge into it)
+    @Modifying
+    @Query(value = "insert into job_lock (name, locked_until, locked_by) values (:name, :until, :owner)", nativeQuery = true)
+    int insert(@Param("name") String name, @Param("owner") String owner, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("update JobLock j set j.lockedUntil = :now where j.name = :name and j.lockedBy = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
@@ -1,13 +1,122 @@
 package com.smartinventory.inventory.repository;
 
 import com.smartinventory.inventory.entity.Product;
+import com.smartinventory.inventory.entity.UnitOfMeasure;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     boolean existsBySku(String sku);
     List<Product> findByNameContainingIgnoreCase(String name);
+    Optional<Product> findBySku(String sku);
+    // keyset chunking for jobs that walk the whole catalog
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    List<Product> findByIdIn(Collection<Long> ids);
+    // offset paging without the count(*) query
+    Slice<Product> findAllBy(Pageable pageable);
+
+    // native so soft-deleted products count too: their SKUs still hold the unique constraint
+    @Query(value = "SELECT sku FROM product WHERE sku IN (:skus)", nativeQuery = true)
+    List<String> findExistingSkus(@Param("skus") Collection<String> skus);
+
+    // native so the active = true restriction doesn't apply: finds soft-deleted products, for restore
+    @Query(value = "SELECT * FROM product WHERE id = :id", nativeQuery = true)
+    Optional<Product> findByIdIncludingInactive(@Param("id") Long id);
+
+    // flat catalog row for the export; a projection, so nothing enters the persistence context
+    interface ExportView {
+        Long getId();
+        String getSku();
+        String getName();
+        String getDescription();
+        UnitOfMeasure getUom();
+        BigDecimal getPrice();
+        BigDecimal getQuantity();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+    }
+
+    // read through a database cursor; callers must consume and close it inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p.id as id, p.sku as sku, p.name as name, p.description as description, p.uom as uom, " +
+            "p.price as price, p.quantity as quantity, p.createdAt as createdAt, p.updatedAt as updatedAt " +
+            "from Product p order by p.id")
+    Stream<ExportView> streamAllForExport();
+
+    // atomic stock delta; intentionally not "update versioned" so stock moves don't invalidate catalog edits
+    @Modifying
+    @Query("update Product p set p.quantity = p.quantity + :delta where p.id = :id")
+    int addQuantity(@Param("id") Long id, @Param("delta") BigDecimal delta);
+
+    // the same delta, refused (0 rows) if it would take the quantity below zero
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.quantity = p.quantity + :delta where p.id = :id and p.quantity + :delta >= 0")
+    int addQuantityIfAvailable(@Param("id") Long id, @Param("delta") BigDecimal delta);
+
+    // active product ids span, for splitting a full scan into ranges
+    interface IdRange {
+        Long getMinId();
+        Long getMaxId();
+    }
+
+    @Query("select min(p.id) as minId, max(p.id) as maxId from Product p")
+    IdRange findIdRange();
+
+    // what the inventory valuation needs of each active product in (fromId, toId], with its preferred
+    // supplier (null when there is none; a product with several preferred suppliers comes once per supplier)
+    interface ValuationView {
+        Long getId();
+        BigDecimal getQuantity();
+        BigDecimal getPrice();
+        UnitOfMeasure getUom();
+        Long getSupplierId();
+    }
+
+    @Query("select p.id as id, p.quantity as quantity, p.price as price, p.uom as uom, ps.supplier.id as supplierId " +
+            "from Product p left join ProductSupplier ps on ps.product = p and ps.preferredSupplier = true " +
+            "where p.id > :fromId and p.id <= :toId")
+    List<ValuationView> findValuationRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Query("select p.id as id, p.quantity as quantity, p.price as price, p.uom as uom, ps.supplier.id as supplierId " +
+            "from Product p left join ProductSupplier ps on ps.product = p and ps.preferredSupplier = true " +
+            "where p.id in :ids")
+    List<ValuationView> findValuationByIdIn(@Param("ids") Collection<Long> ids);
+
+    // what replenishment planning needs of each active product in (fromId, toId] that has a preferred, active
+    // supplier; a product with several preferred suppliers comes once per supplier, lowest supplier id first
+    interface ReplenishmentView {
+        Long getId();
+        BigDecimal getQuantity();
+        Long getSupplierId();
+        BigDecimal getSupplierPrice();
+        Integer getLeadTimeDays();
+    }
+
+    @Query("select p.id as id, p.quantity as quantity, s.id as supplierId, ps.supplierPrice as supplierPrice, " +
+            "ps.leadTimeDays as leadTimeDays " +
+            "from Product p join ProductSupplier ps on ps.product = p and ps.preferredSupplier = true " +
+            "join ps.supplier s " +
+            "where s.active = true and p.id > :fromId and p.id <= :toId " +
+            "order by p.id, s.id")
+    List<ReplenishmentView> findReplenishmentRange(@Param("fromId") long fromId, @Param("toId") long toId);
 }
@@ -3,9 +3,14 @@ package com.smartinventory.inventory.repository;
 import com.smartinventory.inventory.entity.Product;
 import com.smartinventory.inventory.entity.ProductSupplier;
 import com.smartinventory.inventory.entity.Supplier;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +20,32 @@ public interface ProductSupplierRepository extends JpaRepository<ProductSupplier
     List<ProductSupplier> findBySupplierId(Long supplierId);
 
     Optional<Object> findByProductIdAndSupplierId(Long id, long id1);
-}
\ No newline at end of file
+
+    // the supplier a product's stock value is attributed to; lowest id if several are marked preferred
+    @Query("select min(ps.supplier.id) from ProductSupplier ps where ps.product.id = :productId and ps.preferredSupplier = true")
+    Long findPreferredSupplierId(@Param("productId") Long productId);
+
+    // a mapping as the supplier price matrix holds it
+    interface PriceView {
+        Long getId();
+        Long getProductId();
+        Long getSupplierId();
+        BigDecimal getSupplierPrice();
+        Integer getLeadTimeDays();
+    }
+
+    @Query("select ps.id as id, ps.product.id as productId, ps.supplier.id as supplierId, " +
+            "ps.supplierPrice as supplierPrice, ps.leadTimeDays as leadTimeDays " +
+            "from ProductSupplier ps where ps.id > :afterId order by ps.id")
+    List<PriceView> findPriceViewsAfter(@Param("afterId") long afterId, Limit limit);
+
+    @Query("select ps.id as id, ps.product.id as productId, ps.supplier.id as supplierId, " +
+            "ps.supplierPrice as supplierPrice, ps.leadTimeDays as leadTimeDays " +
+            "from ProductSupplier ps where ps.product.id = :productId and ps.supplier.id = :supplierId")
+    Optional<PriceView> findPriceView(@Param("productId") Long productId, @Param("supplierId") Long supplierId);
+
+    @Query("select ps.id as id, ps.product.id as productId, ps.supplier.id as supplierId, " +
+            "ps.supplierPrice as supplierPrice, ps.leadTimeDays as leadTimeDays " +
+            "from ProductSupplier ps where ps.supplier.id = :supplierId and ps.product.id in :productIds")
+    List<PriceView> findPriceViews(@Param("supplierId") Long supplierId, @Param("productIds") Collection<Long> productIds);
+}
@@ -0,0 +1,49 @@
+package com.smartinventory.inventory.repository;
+
+import com.smartinventory.inventory.entity.OrderStatus;
+import com.smartinventory.inventory.entity.PurchaseOrderLine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PurchaseOrderLineRepository extends JpaRepository<PurchaseOrderLine, Long> {
+
+    // flat row of the purchase order read path: one line with its product's SKU and name
+    interface LineView {
+        Long getPurchaseOrderId();
+        Long getId();
+        Long getProductId();
+        String getSku();
+        String getProductName();
+        BigDecimal getQuantity();
+        BigDecimal getUnitPrice();
+        BigDecimal getSubtotal();
+        BigDecimal getReceivedQuantity();
+        String getLineStatus();
+    }
+
+    // all lines of a page of orders in one query; native so soft-deleted products still show their name
+    @Query(value = """
+            select l.purchase_order_id as purchaseOrderId, l.id as id, l.product_id as productId,
+                   p.sku as sku, p.name as productName, l.quantity as quantity, l.unit_price as unitPrice,
+                   l.subtotal as subtotal, l.received_quantity as receivedQuantity, l.line_status as lineStatus
+            from purchase_order_line l
+            join product p on p.id = l.product_id
+            where l.purchase_order_id in (:orderIds)
+            order by l.purchase_order_id, l.id""", nativeQuery = true)
+    List<LineView> findViewsByPurchaseOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // [productId, ordered but not yet received quantity] on orders in the given states, for products in (fromId, toId]
+    @Query("select l.product.id, sum(l.quantity - l.receivedQuantity) from PurchaseOrderLine l " +
+            "where l.purchaseOrder.orderStatus in :statuses and l.product.id > :fromId and l.product.id <= :toId " +
+            "group by l.product.id")
+    List<Object[]> sumOpenQuantityByProductRange(@Param("statuses") Collection<OrderStatus> statuses,
+                                                 @Param("fromId") long fromId,
+                                                 @Param("toId") long toId);
+}
@@ -1,10 +1,35 @@
 package com.smartinventory.inventory.repository;
 
 import com.smartinventory.inventory.entity.PurchaseOrder;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder,Long> {
+    // list reads fetch the supplier in the same query instead of one select per supplier
+    // keyset paging
+    @EntityGraph(attributePaths = "supplier")
+    List<PurchaseOrder> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    // offset paging without the count(*) query
+    @EntityGraph(attributePaths = "supplier")
+    Slice<PurchaseOrder> findAllBy(Pageable pageable);
+
+    // receiving: lock the orders in id order (the lines are loaded separately; FOR UPDATE can't cover an outer join)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select po from PurchaseOrder po where po.id in :ids order by po.id")
+    List<PurchaseOrder> lockForReceiving(@Param("ids") Collection<Long> ids);
 
+    @Query("select distinct po from PurchaseOrder po left join fetch po.purchaseOrderLineList where po.id in :ids")
+    List<PurchaseOrder> fetchLines(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,28 @@
+package com.smartinventory.inventory.repository;
+
+import com.smartinventory.inventory.entity.ReceiptRequest;
+import com.smartinventory.inventory.entity.ReceiptStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReceiptRequestRepository extends JpaRepository<ReceiptRequest, Long> {
+    // recovery after a restart and the periodic sweep, in acceptance order
+    List<ReceiptRequest> findByStatusAndAcceptedAtBeforeAndIdGreaterThanOrderByIdAsc(ReceiptStatus status,
+                                                                                   LocalDateTime acceptedBefore,
+                                                                                   Long id, Limit limit);
+
+    // a conditional update takes the row locks: a writer racing for the same rows waits for this transaction
+    // and then no longer finds them PENDING
+    @Modifying(clearAutomatically = true)
+    @Query("update ReceiptRequest r set r.status = :to where r.id in :ids and r.status = :from")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("from") ReceiptStatus from, @Param("to") ReceiptStatus to);
+}
@@ -0,0 +1,26 @@
+package com.smartinventory.inventory.repository;
+
+import com.smartinventory.inventory.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    @Query("select r.sessionDigest from RevokedToken r where r.expiresAt > :now")
+    List<String> findDigestsExpiringAfter(@Param("now") LocalDateTime now);
+
+    // revocations made since the last sync, on any instance
+    @Query("select r.sessionDigest from RevokedToken r where r.revokedAt > :since")
+    List<String> findDigestsRevokedAfter(@Param("since") LocalDateTime since);
+
+    // one statement instead of the load-then-delete of a derived delete
+    @Modifying
+    @Query("delete from RevokedToken r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
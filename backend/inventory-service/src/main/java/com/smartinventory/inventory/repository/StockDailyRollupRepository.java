@@ -0,0 +1,55 @@
+package com.smartinventory.inventory.repository;
+
+import com.smartinventory.inventory.entity.StockDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockDailyRollupRepository extends JpaRepository<StockDailyRollup, StockDailyRollup.Key> {
+
+    // last day that has been rolled up; every day up to it is covered (days without movements have no rows)
+    @Query("select max(r.rollupDate) from StockDailyRollup r")
+    LocalDate findLastRollupDate();
+
+    List<StockDailyRollup> findByProductIdAndRollupDateBetweenOrderByRollupDateAsc(Long productId, LocalDate from, LocalDate to);
+
+    interface Totals {
+        BigDecimal getInQuantity();
+        BigDecimal getOutQuantity();
+        BigDecimal getAdjustmentQuantity();
+    }
+
+    @Query("select coalesce(sum(r.inQuantity), 0) as inQuantity, coalesce(sum(r.outQuantity), 0) as outQuantity, " +
+            "coalesce(sum(r.adjustmentQuantity), 0) as adjustmentQuantity from StockDailyRollup r " +
+            "where r.productId = :productId and r.rollupDate between :from and :to")
+    Totals sumBetween(@Param("productId") Long productId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // [productId, sum(outQuantity)] over the days [from, to] for products in (fromId, toId]; a primary key range scan
+    @Query("select r.productId, sum(r.outQuantity) from StockDailyRollup r " +
+            "where r.productId > :fromId and r.productId <= :toId and r.rollupDate between :from and :to " +
+            "group by r.productId")
+    List<Object[]> sumOutByProductRange(@Param("fromId") long fromId, @Param("toId") long toId,
+                                        @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // one statement per day: the database aggregates [start, end) and nothing goes through the application
+    @Modifying
+    @Query(value = """
+            insert into stock_daily_rollup (product_id, rollup_date, in_quantity, out_quantity, adjustment_quantity, movement_count)
+            select m.product_id, :day,
+                   coalesce(sum(case when m.movement_type = 'IN' then m.quantity end), 0),
+                   coalesce(sum(case when m.movement_type = 'OUT' then m.quantity end), 0),
+                   coalesce(sum(case when m.movement_type = 'ADJUSTMENT' then m.quantity end), 0),
+                   count(*)
+            from stock_movement m
+            where m.created_at >= :start and m.created_at < :end and m.movement_type in ('IN', 'OUT', 'ADJUSTMENT')
+            group by m.product_id""", nativeQuery = true)
+    int rollUpDay(@Param("day") LocalDate day, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+}
@@ -1,13 +1,132 @@
 package com.smartinventory.inventory.repository;
 
+import com.smartinventory.inventory.entity.MovementType;
 import com.smartinventory.inventory.entity.StockMovement;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
     List<StockMovement> findByProductId(Long productId);
-    List<StockMovement> findByReferenceTypeAndReferenceId(String referenceType, Long referenceId);
+
+    // keyset page of one product's history, newest first: everything in [from, ...) strictly before the
+    // cursor row (atOrBefore, beforeId) in (created_at, id) order. The redundant createdAt <= bound lets the
+    // scan of idx_sm_product_created_id start at the cursor, and ordering by the (fixed) product id as well
+    // lets every database read rows in index order and stop after the page instead of sorting the range.
+    @Query("select m from StockMovement m where m.product.id = :productId and m.movementType in :types " +
+            "and m.createdAt >= :from and m.createdAt <= :atOrBefore " +
+            "and (m.createdAt < :atOrBefore or m.id < :beforeId) " +
+            "order by m.product.id, m.createdAt desc, m.id desc")
+    List<StockMovement> findPageByProduct(@Param("productId") Long productId,
+                                          @Param("types") Collection<MovementType> types,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("atOrBefore") LocalDateTime atOrBefore,
+                                          @Param("beforeId") long beforeId,
+                                          Limit limit);
+
+    // flat movement row for the export, with the product's SKU
+    interface ExportView {
+        Long getId();
+        Long getProductId();
+        String getSku();
+        String getMovementType();
+        BigDecimal getQuantity();
+        String getReferenceType();
+        Long getReferenceId();
+        LocalDateTime getCreatedAt();
+        String getNote();
+    }
+
+    // cursor reads for the export in [from, to); native so movements of soft-deleted products are included.
+    // Callers must consume and close the stream inside a transaction.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = """
+            select m.id as id, m.product_id as productId, p.sku as sku, m.movement_type as movementType,
+                   m.quantity as quantity, m.reference_type as referenceType, m.reference_id as referenceId,
+                   m.created_at as createdAt, m.note as note
+            from stock_movement m
+            join product p on p.id = m.product_id
+            where m.created_at >= :from and m.created_at < :to
+            order by m.id""", nativeQuery = true)
+    Stream<ExportView> streamForExport(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = """
+            select m.id as id, m.product_id as productId, p.sku as sku, m.movement_type as movementType,
+                   m.quantity as quantity, m.reference_type as referenceType, m.reference_id as referenceId,
+                   m.created_at as createdAt, m.note as note
+            from stock_movement m
+            join product p on p.id = m.product_id
+            where m.product_id = :productId and m.created_at >= :from and m.created_at < :to
+            order by m.created_at, m.id""", nativeQuery = true)
+    Stream<ExportView> streamForExportByProduct(@Param("productId") Long productId,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
+
+    @Query("select min(m.createdAt) from StockMovement m")
+    LocalDateTime findEarliestCreatedAt();
+
+    // same shape as a stock_daily_rollup row, for days that have not been rolled up yet
+    interface DailyTotalsView {
+        LocalDate getRollupDate();
+        BigDecimal getInQuantity();
+        BigDecimal getOutQuantity();
+        BigDecimal getAdjustmentQuantity();
+        Long getMovementCount();
+    }
+
+    @Query(value = """
+            select cast(m.created_at as date) as rollupDate,
+                   coalesce(sum(case when m.movement_type = 'IN' then m.quantity end), 0) as inQuantity,
+                   coalesce(sum(case when m.movement_type = 'OUT' then m.quantity end), 0) as outQuantity,
+                   coalesce(sum(case when m.movement_type = 'ADJUSTMENT' then m.quantity end), 0) as adjustmentQuantity,
+                   count(*) as movementCount
+            from stock_movement m
+            where m.product_id = :productId and m.created_at >= :from and m.created_at < :to
+              and m.movement_type in ('IN', 'OUT', 'ADJUSTMENT')
+            group by cast(m.created_at as date)
+            order by cast(m.created_at as date)""", nativeQuery = true)
+    List<DailyTotalsView> sumByDay(@Param("productId") Long productId,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to);
+
+    // [movementType, sum(quantity)] for one product in (from, to]; served by idx_sm_product_created_id
+    @Query("select m.movementType, sum(m.quantity) from StockMovement m " +
+            "where m.product.id = :productId and m.createdAt > :from and m.createdAt <= :to " +
+            "group by m.movementType")
+    List<Object[]> sumQuantityByType(@Param("productId") Long productId,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+
+    // [productId, movementType, sum(quantity)] after a point in time for products in (fromId, toId]
+    @Query("select m.product.id, m.movementType, sum(m.quantity) from StockMovement m " +
+            "where m.product.id > :fromId and m.product.id <= :toId and m.createdAt > :after " +
+            "group by m.product.id, m.movementType")
+    List<Object[]> sumByProductAndTypeAfter(@Param("fromId") long fromId,
+                                            @Param("toId") long toId,
+                                            @Param("after") LocalDateTime after);
+
+    // [productId, sum(quantity)] of one movement type in [from, to) for products in (fromId, toId]
+    @Query("select m.product.id, sum(m.quantity) from StockMovement m " +
+            "where m.product.id > :fromId and m.product.id <= :toId and m.movementType = :type " +
+            "and m.createdAt >= :from and m.createdAt < :to " +
+            "group by m.product.id")
+    List<Object[]> sumByProductRange(@Param("type") MovementType type,
+                                     @Param("fromId") long fromId,
+                                     @Param("toId") long toId,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,14 @@
+package com.smartinventory.inventory.repository;
+
+import com.smartinventory.inventory.entity.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+    Optional<StockSnapshot> findFirstByProductIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(Long productId, LocalDateTime at);
+    Optional<StockSnapshot> findFirstByProductIdAndSnapshotAtGreaterThanOrderBySnapshotAtAsc(Long productId, LocalDateTime at);
+}
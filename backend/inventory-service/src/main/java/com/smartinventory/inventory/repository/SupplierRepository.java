@@ -1,12 +1,20 @@
 package com.smartinventory.inventory.repository;
 
 import com.smartinventory.inventory.entity.Supplier;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SupplierRepository extends JpaRepository<Supplier, Long> {
     Optional<Supplier> findByEmail(String email);
+    // keyset paging
+    List<Supplier> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    // offset paging without the count(*) query
+    Slice<Supplier> findAllBy(Pageable pageable);
 }
@@ -1,16 +1,32 @@
 package com.smartinventory.inventory.repository;
 
 import com.smartinventory.inventory.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User,Long> {
+    // roles in the same query: they are always needed and the lazy load fails outside a session
+    @EntityGraph(attributePaths = "roles")
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
 
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    @Query("select u.tokenGeneration from User u where u.username = :username")
+    Optional<Integer> findTokenGeneration(@Param("username") String username);
+
+    // in the database, so concurrent bumps on different instances both count
+    @Transactional
+    @Modifying
+    @Query("update User u set u.tokenGeneration = u.tokenGeneration + 1 where u.username = :username")
+    int incrementTokenGeneration(@Param("username") String username);
 }
@@ -0,0 +1,262 @@
+package com.smartinventory.inventory.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartinventory.inventory.repository.ProductRepository;
+import com.smartinventory.inventory.repository.StockMovementRepository;
+import com.smartinventory.inventory.util.FileFormat;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Streaming CSV / NDJSON exports of the catalog and the stock movement ledger.
+ * <p>
+ * Rows come from a database cursor (a {@link Stream} query with a fetch size, read as flat projections so
+ * the persistence context stays empty) and are written to the response as they are read. Nothing is sent
+ * until the first row has been read, so a query that fails to start still gets an error status; after that
+ * the first row goes out immediately. Memory use and time to first byte are therefore the same for any
+ * number of rows. The whole export reads from one read-only transaction, so it is a consistent snapshot.
+ * <p>
+ * A failure after the first row can no longer change the 200 status, so a complete export ends with an
+ * {@value #ROWS_TRAILER} HTTP trailer holding its row count (chunked HTTP/1.1 and HTTP/2 only). A response
+ * without it was cut short. Exports run as async requests with their own {@code inventory.export.timeout}.
+ */
+@Service
+public class ExportService {
+    private static final LocalDateTime MIN_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+    public static final String ROWS_TRAILER = "X-Export-Rows";
+
+    private static final List<Column<ProductRepository.ExportView>> PRODUCT_COLUMNS = List.of(
+            new Column<>("id", ProductRepository.ExportView::getId),
+            new Column<>("sku", ProductRepository.ExportView::getSku),
+            new Column<>("name", ProductRepository.ExportView::getName),
+            new Column<>("description", ProductRepository.ExportView::getDescription),
+            new Column<>("uom", ProductRepository.ExportView::getUom),
+            new Column<>("price", ProductRepository.ExportView::getPrice),
+            new Column<>("quantity", ProductRepository.ExportView::getQuantity),
+            new Column<>("createdAt", ProductRepository.ExportView::getCreatedAt),
+            new Column<>("updatedAt", ProductRepository.ExportView::getUpdatedAt));
+
+    private static final List<Column<StockMovementRepository.ExportView>> MOVEMENT_COLUMNS = List.of(
+            new Column<>("id", StockMovementRepository.ExportView::getId),
+            new Column<>("productId", StockMovementRepository.ExportView::getProductId),
+            new Column<>("sku", StockMovementRepository.ExportView::getSku),
+            new Column<>("movementType", StockMovementRepository.ExportView::getMovementType),
+            new Column<>("quantity", StockMovementRepository.ExportView::getQuantity),
+            new Column<>("referenceType", StockMovementRepository.ExportView::getReferenceType),
+            new Column<>("referenceId", StockMovementRepository.ExportView::getReferenceId),
+            new Column<>("createdAt", StockMovementRepository.ExportView::getCreatedAt),
+            new Column<>("note", StockMovementRepository.ExportView::getNote));
+
+    private final ProductRepository productRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final JsonFactory jsonFactory;
+    private final Duration timeout;
+
+    public ExportService(ProductRepository productRepository,
+                         StockMovementRepository stockMovementRepository,
+                         PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper,
+                         @Value("${inventory.export.timeout:1h}") Duration timeout) {
+        this.productRepository = productRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        // cursors only stay open inside a transaction (PostgreSQL ignores the fetch size in autocommit)
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.jsonFactory = objectMapper.getFactory();
+        this.timeout = timeout;
+    }
+
+    public StreamingResponseBody exportProducts(FileFormat format, HttpServletRequest request,
+                                                HttpServletResponse response) {
+        prepare(request, response);
+        return out -> export(out, response, format, PRODUCT_COLUMNS, productRepository::streamAllForExport);
+    }
+
+    // movements in [from, to), optionally of one product; open bounds mean everything
+    public StreamingResponseBody exportStockMovements(FileFormat format, Long productId,
+                                                      LocalDateTime from, LocalDateTime to,
+                                                      HttpServletRequest request, HttpServletResponse response) {
+        LocalDateTime start = from == null ? MIN_TIME : from;
+        LocalDateTime end = to == null ? MAX_TIME : to;
+        prepare(request, response);
+        return out -> export(out, response, format, MOVEMENT_COLUMNS, () -> productId == null
+                ? stockMovementRepository.streamForExport(start, end)
+                : stockMovementRepository.streamForExportByProduct(productId, start, end));
+    }
+
+    // the export's own async timeout instead of the default, and the row count trailer announced up front
+    private void prepare(HttpServletRequest request, HttpServletResponse response) {
+        AsyncWebRequest asyncRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        if (asyncRequest != null) {
+            asyncRequest.setTimeout(timeout.toMillis());
+        }
+        response.setHeader(HttpHeaders.TRAILER, ROWS_TRAILER);
+    }
+
+    private <T> void export(OutputStream out, HttpServletResponse response, FileFormat format,
+                            List<Column<T>> columns, Supplier<Stream<T>> query) throws IOException {
+        RowWriter<T> writer = format == FileFormat.CSV
+                ? new CsvRowWriter<>(out, columns)
+                : new NdjsonRowWriter<>(out, columns, jsonFactory);
+        // stays -1 unless every row was written; read when the response completes
+        AtomicLong completeRows = new AtomicLong(-1);
+        try {
+            response.setTrailerFields(() -> completeRows.get() < 0
+                    ? Map.of()
+                    : Map.of(ROWS_TRAILER, Long.toString(completeRows.get())));
+        } catch (IllegalStateException ex) {
+            // HTTP/1.0 has no trailers; the export goes out without one
+        }
+        writer.start();
+        long[] written = {0};
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<T> rows = query.get()) {
+                    rows.forEach(row -> {
+                        try {
+                            writer.write(row);
+                            if (++written[0] == 1) {
+                                writer.flush();    // first row out now; after that the buffer decides
+                            }
+                        } catch (IOException ex) {
+                            // usually the client went away; abandon the cursor
+                            throw new UncheckedIOException(ex);
+                        }
+                    });
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        writer.flush();
+        completeRows.set(written[0]);
+    }
+
+    private record Column<T>(String name, Function<T, Object> value) {
+    }
+
+    private interface RowWriter<T> {
+        // called before the query runs; buffers the header, which goes out with the first row
+        void start() throws IOException;
+
+        void write(T row) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private static final class CsvRowWriter<T> implements RowWriter<T> {
+        private final Writer writer;
+        private final List<Column<T>> columns;
+
+        CsvRowWriter(OutputStream out, List<Column<T>> columns) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            this.columns = columns;
+        }
+
+        @Override
+        public void start() throws IOException {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) writer.write(',');
+                writer.write(columns.get(i).name());
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(T row) throws IOException {
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) writer.write(',');
+                Object value = columns.get(i).value().apply(row);
+                if (value != null) {
+                    writeField(value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString());
+                }
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        private void writeField(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private static final class NdjsonRowWriter<T> implements RowWriter<T> {
+        private final JsonGenerator json;
+        private final List<Column<T>> columns;
+
+        NdjsonRowWriter(OutputStream out, List<Column<T>> columns, JsonFactory jsonFactory) throws IOException {
+            this.json = jsonFactory.createGenerator(new BufferedOutputStream(out, 64 * 1024));
+            this.json.setRootValueSeparator(null);
+            this.columns = columns;
+        }
+
+        @Override
+        public void start() throws IOException {
+            // no header in NDJSON; nothing to send until the first row
+        }
+
+        @Override
+        public void write(T row) throws IOException {
+            json.writeStartObject();
+            for (Column<T> column : columns) {
+                Object value = column.value().apply(row);
+                json.writeFieldName(column.name());
+                if (value == null) {
+                    json.writeNull();
+                } else if (value instanceof BigDecimal decimal) {
+                    json.writeNumber(decimal);
+                } else if (value instanceof Number number) {
+                    json.writeNumber(number.longValue());
+                } else {
+                    json.writeString(value.toString());
+                }
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            json.flush();
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.dto.InventoryValuationResponseDTO;
+import com.smartinventory.inventory.dto.SupplierValuationDTO;
+import com.smartinventory.inventory.dto.UomValuationDTO;
+import com.smartinventory.inventory.entity.UnitOfMeasure;
+import com.smartinventory.inventory.event.ProductChangedEvent;
+import com.smartinventory.inventory.event.ProductSupplierChangedEvent;
+import com.smartinventory.inventory.event.StockChangedEvent;
+import com.smartinventory.inventory.repository.ProductRepository;
+import com.smartinventory.inventory.repository.ProductSupplierRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Total stock value ({@code quantity * price} over active products), overall, by unit of measure and by
+ * preferred supplier.
+ * <p>
+ * The totals are kept in memory. Every committed change to a product — receipts and stock adjustments
+ * ({@link StockChangedEvent}), catalog edits, imports, deletes and restores ({@link ProductChangedEvent}),
+ * and supplier mapping changes ({@link ProductSupplierChangedEvent}) — re-reads that product's position
+ * (quantity, price, unit, preferred supplier) and moves the totals by the difference to the one held. The
+ * products a transaction changes are collected while it runs and re-read with one {@code IN} query after it
+ * commits, so a receipt batch or an import chunk costs one query rather than one per event; changes made
+ * outside a transaction are re-read at once. Positions are absolute, so an event handled twice or late can't
+ * count a change twice. A read sums a handful of counters and never touches the database or the catalog.
+ * <p>
+ * A full recompute runs at startup and nightly. It scans the catalog in parallel id ranges into new totals
+ * while the current ones keep being served and updated; products changed during the scan are noted and
+ * re-read into the new totals once they replace the current ones. It also picks up changes made by other
+ * instances or directly in the database.
+ */
+@Slf4j
+@Service
+public class InventoryValuationService {
+    // values are summed as longs in millionths: exact for quantity (4 decimals) times price (2 decimals)
+    private static final int VALUE_SCALE = 6;
+    // ids per re-read query, well under the bind parameter limits
+    private static final int REFRESH_CHUNK = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductSupplierRepository productSupplierRepository;
+    private final int rangeSize;
+    private final ExecutorService recomputePool;
+
+    // re-read and apply of one product are serialised, so a slower, older read can't overwrite a newer one;
+    // a batch takes the stripes it needs in index order
+    private final Lock[] productLocks = new Lock[64];
+    // shared by incremental updates, exclusive for the moment a recompute swaps in its totals
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final Object recomputeLock = new Object();
+    private volatile Valuation current = new Valuation();
+    // products changed while a recompute scans, re-read once it has swapped; null when no scan is running
+    private Set<Long> changedDuringScan;
+    private volatile LocalDateTime recomputedAt;
+
+    public InventoryValuationService(ProductRepository productRepository,
+                                     ProductSupplierRepository productSupplierRepository,
+                                     @Value("${inventory.valuation.recompute-threads:4}") int threads,
+                                     @Value("${inventory.valuation.range-size:10000}") int rangeSize) {
+        this.productRepository = productRepository;
+        this.productSupplierRepository = productSupplierRepository;
+        this.rangeSize = rangeSize;
+        Arrays.setAll(productLocks, i -> new ReentrantLock());
+        AtomicInteger counter = new AtomicInteger();
+        this.recomputePool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "valuation-recompute-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public InventoryValuationResponseDTO getValuation() {
+        Valuation valuation = current;
+        List<UomValuationDTO> byUom = valuation.byUom.entrySet().stream()
+                .filter(e -> e.getValue().products.sum() > 0)
+                .map(e -> new UomValuationDTO(e.getKey().name(), e.getValue().value(), e.getValue().products.sum()))
+                .sorted(Comparator.comparing(UomValuationDTO::value).reversed())
+                .toList();
+        List<SupplierValuationDTO> bySupplier = valuation.bySupplier.entrySet().stream()
+                .filter(e -> e.getValue().products.sum() > 0)
+                .map(e -> new SupplierValuationDTO(e.getKey() == Valuation.NO_SUPPLIER ? null : e.getKey(),
+                        e.getValue().value(), e.getValue().products.sum()))
+                .sorted(Comparator.comparing(SupplierValuationDTO::value).reversed())
+                .toList();
+        return new InventoryValuationResponseDTO(valuation.total.value(), valuation.total.products.sum(),
+                byUom, bySupplier, recomputedAt);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${inventory.valuation.recompute-cron:0 0 3 * * *}")
+    public InventoryValuationResponseDTO recompute() {
+        long started = System.currentTimeMillis();
+        Set<Long> changed;
+        synchronized (recomputeLock) {
+            swapLock.writeLock().lock();
+            try {
+                changedDuringScan = ConcurrentHashMap.newKeySet();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            Valuation fresh = new Valuation();
+            boolean scanned = false;
+            try {
+                scan(fresh);
+                scanned = true;
+            } finally {
+                swapLock.writeLock().lock();
+                try {
+                    changed = changedDuringScan;
+                    changedDuringScan = null;
+                    // a failed scan keeps serving the previous totals
+                    if (scanned) {
+                        current = fresh;
+                        recomputedAt = LocalDateTime.now();
+                    }
+                } finally {
+                    swapLock.writeLock().unlock();
+                }
+            }
+        }
+        // the scan may have read these before or after their change; their position now is what counts
+        refresh(changed);
+        log.info("Inventory valuation recomputed over {} products in {} ms ({} re-read after the scan)",
+                current.total.products.sum(), System.currentTimeMillis() - started, changed.size());
+        return getValuation();
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        changed(event.product().id());
+    }
+
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        changed(event.productId());
+    }
+
+    @EventListener
+    public void onProductSupplierChanged(ProductSupplierChangedEvent event) {
+        changed(event.productId());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        recomputePool.shutdownNow();
+    }
+
+    private void scan(Valuation fresh) {
+        ProductRepository.IdRange ids = productRepository.findIdRange();
+        if (ids != null && ids.getMinId() != null) {
+            List<CompletableFuture<Void>> ranges = new ArrayList<>();
+            for (long from = ids.getMinId() - 1; from < ids.getMaxId(); from += rangeSize) {
+                long fromId = from;
+                long toId = Math.min(from + rangeSize, ids.getMaxId());
+                ranges.add(CompletableFuture.runAsync(() -> productRepository.findValuationRange(fromId, toId)
+                        .forEach(row -> fresh.update(row.getId(), old -> preferLowerSupplier(old, toPosition(row)))),
+                        recomputePool));
+            }
+            try {
+                CompletableFuture.allOf(ranges.toArray(CompletableFuture[]::new)).join();
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+            }
+        }
+    }
+
+    // inside a transaction the product joins the set re-read after commit (nothing on rollback); otherwise now
+    private void changed(Long productId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            refresh(Set.of(productId));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Long> ids = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                // an inner REQUIRES_NEW transaction collects its own set
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(InventoryValuationService.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(InventoryValuationService.this, ids);
+                }
+
+                @Override
+                public void afterCommit() {
+                    refresh(ids);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InventoryValuationService.this);
+                }
+            });
+            pending = ids;
+        }
+        pending.add(productId);
+    }
+
+    // re-reads the products' positions and replaces the ones held, in the current totals
+    private void refresh(Collection<Long> productIds) {
+        List<Long> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += REFRESH_CHUNK) {
+            refreshChunk(ids.subList(from, Math.min(from + REFRESH_CHUNK, ids.size())));
+        }
+    }
+
+    private void refreshChunk(List<Long> productIds) {
+        BitSet stripes = new BitSet(productLocks.length);
+        productIds.forEach(id -> stripes.set((int) (id & (productLocks.length - 1))));
+        stripes.stream().forEach(i -> productLocks[i].lock());
+        try {
+            Map<Long, Position> positions = new HashMap<>();
+            for (ProductRepository.ValuationView row : productRepository.findValuationByIdIn(productIds)) {
+                positions.merge(row.getId(), toPosition(row), InventoryValuationService::preferLowerSupplier);
+            }
+            swapLock.readLock().lock();
+            try {
+                for (Long productId : productIds) {
+                    // not returned: deleted or gone, so no longer valued
+                    Position updated = positions.get(productId);
+                    current.update(productId, old -> updated);
+                }
+                if (changedDuringScan != null) {
+                    changedDuringScan.addAll(productIds);
+                }
+            } finally {
+                swapLock.readLock().unlock();
+            }
+        } finally {
+            stripes.stream().forEach(i -> productLocks[i].unlock());
+        }
+    }
+
+    private static Position toPosition(ProductRepository.ValuationView row) {
+        return new Position(orZero(row.getQuantity()), orZero(row.getPrice()), row.getUom(),
+                row.getSupplierId() == null ? Valuation.NO_SUPPLIER : row.getSupplierId());
+    }
+
+    // a product with several preferred suppliers is listed once per supplier by the recompute query
+    private static Position preferLowerSupplier(Position old, Position row) {
+        return old == null || row.supplierId() < old.supplierId() ? row : old;
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    private record Position(BigDecimal quantity, BigDecimal price, UnitOfMeasure uom, long supplierId) {
+        long value() {
+            return quantity.multiply(price).setScale(VALUE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        }
+
+    }
+
+    private static final class Totals {
+        final LongAdder value = new LongAdder();
+        final LongAdder products = new LongAdder();
+
+        void add(Position position, int sign) {
+            value.add(sign * position.value());
+            products.add(sign);
+        }
+
+        BigDecimal value() {
+            return BigDecimal.valueOf(value.sum(), VALUE_SCALE).setScale(2, RoundingMode.HALF_UP);
+        }
+    }
+
+    private static final class Valuation {
+        static final long NO_SUPPLIER = 0L;
+
+        final Map<Long, Position> positions = new ConcurrentHashMap<>();
+        final Totals total = new Totals();
+        final Map<UnitOfMeasure, Totals> byUom = new ConcurrentHashMap<>();
+        final Map<Long, Totals> bySupplier = new ConcurrentHashMap<>();
+
+        // replaces one product's position (null = not valued) and moves the totals by the difference;
+        // atomic per product, concurrent across products
+        void update(Long productId, UnaryOperator<Position> change) {
+            positions.compute(productId, (id, old) -> {
+                Position updated = change.apply(old);
+                if (old != null) {
+                    account(old, -1);
+                }
+                if (updated != null) {
+                    account(updated, 1);
+                }
+                return updated;
+            });
+        }
+
+        private void account(Position position, int sign) {
+            total.add(position, sign);
+            byUom.computeIfAbsent(position.uom(), k -> new Totals()).add(position, sign);
+            bySupplier.computeIfAbsent(position.supplierId(), k -> new Totals()).add(position, sign);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.repository.JobLockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Runs scheduled jobs on one instance at a time, through leases in {@code job_lock}.
+ * <p>
+ * Every instance schedules the same jobs; the first to take the job's lease runs it and the others skip that
+ * run. The lease is released when the job ends and lapses after {@code maxDuration} if the instance dies, so
+ * {@code maxDuration} has to be longer than the job ever takes.
+ */
+@Slf4j
+@Service
+public class JobLockService {
+    private final JobLockRepository jobLockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner = UUID.randomUUID().toString();
+
+    public JobLockService(JobLockRepository jobLockRepository, TransactionTemplate transactionTemplate) {
+        this.jobLockRepository = jobLockRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Runs {@code job} if no other instance is running {@code name}.
+     *
+     * @return false if the job was skipped
+     */
+    public boolean runExclusively(String name, Duration maxDuration, Runnable job) {
+        if (!acquire(name, maxDuration)) {
+            log.debug("Skipping {}: running on another instance", name);
+            return false;
+        }
+        try {
+            job.run();
+            return true;
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> jobLockRepository.release(name, owner, LocalDateTime.now()));
+        }
+    }
+
+    private boolean acquire(String name, Duration maxDuration) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer taken = transactionTemplate.execute(status ->
+                jobLockRepository.acquire(name, owner, now, now.plus(maxDuration)));
+        if (taken != null && taken > 0) {
+            return true;
+        }
+        try {
+            // first run of the job anywhere: whoever inserts the row holds the lease
+            transactionTemplate.executeWithoutResult(status -> jobLockRepository.insert(name, owner, now.plus(maxDuration)));
+            return true;
+        } catch (DataIntegrityViolationException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.smartinventory.inventory.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out purchase order numbers from blocks reserved on {@code order_number_seq} (hi/lo style).
+ * <p>
+ * The sequence is set to increment by the block size, so every {@code nextval} returns the high end of a
+ * block of numbers {@code (hi - blockSize, hi]} that belongs to this instance alone. Numbers inside a block
+ * are handed out lock-free; only fetching the next block takes a lock and a round trip. Because the sequence
+ * never goes back, numbers stay unique across instances and restarts; the unused rest of a block is skipped
+ * when the service stops, leaving a gap. As with Hibernate's pooled ids, every instance must use the same
+ * block size.
+ */
+@Component
+public class OrderNumberAllocator {
+    private static final String SEQUENCE = "order_number_seq";
+    private static final String PREFIX = "ORDER-";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int blockSize;
+    private final AtomicReference<Block> current = new AtomicReference<>(Block.EMPTY);
+
+    public OrderNumberAllocator(JdbcTemplate jdbcTemplate,
+                                @Value("${inventory.order-number.block-size:100}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("inventory.order-number.block-size must be >= 1");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.blockSize = blockSize;
+    }
+
+    @PostConstruct
+    public void prepareSequence() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE);
+        jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE + " INCREMENT BY " + blockSize);
+    }
+
+    /**
+     * Next order number formatted as {@code ORDER-00042}.
+     */
+    public String nextOrderNumber() {
+        return format(nextValue());
+    }
+
+    public long nextValue() {
+        while (true) {
+            Block block = current.get();
+            long value = block.next.getAndIncrement();
+            if (value <= block.last) {
+                return value;
+            }
+            reserveBlock(block);
+        }
+    }
+
+    private synchronized void reserveBlock(Block exhausted) {
+        // another thread may have replaced the block while we waited for the lock
+        if (current.get() != exhausted) {
+            return;
+        }
+        Long hi = jdbcTemplate.queryForObject("SELECT nextval('" + SEQUENCE + "')", Long.class);
+        if (hi == null) {
+            throw new IllegalStateException("Sequence " + SEQUENCE + " returned no value");
+        }
+        // a fresh sequence starts at 1 regardless of its increment, so never go below 1
+        long first = Math.max(1, hi - blockSize + 1);
+        current.set(new Block(first, hi));
+    }
+
+    private static String format(long value) {
+        String digits = Long.toString(value);
+        if (digits.length() >= 5) {
+            return PREFIX + digits;
+        }
+        return PREFIX + "00000".substring(digits.length()) + digits;
+    }
+
+    private static final class Block {
+        static final Block EMPTY = new Block(1, 0);
+
+        final AtomicLong next;
+        final long last;
+
+        Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}
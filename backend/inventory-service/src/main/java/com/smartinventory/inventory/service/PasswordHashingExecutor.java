@@ -0,0 +1,54 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.exception.AuthBusyException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing and verification (BCrypt, deliberately slow) on its own small pool.
+ * <p>
+ * A burst of logins then queues here instead of occupying every Tomcat thread, so the rest of the API keeps
+ * answering. The queue is bounded: once it is full a new request is rejected immediately with
+ * {@link AuthBusyException} (503) rather than waiting behind work that would outlast the client's timeout.
+ */
+@Slf4j
+@Component
+public class PasswordHashingExecutor {
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHashingExecutor(@Value("${inventory.auth.hashing.threads:0}") int threads,
+                                   @Value("${inventory.auth.hashing.queue-capacity:64}") int queueCapacity) {
+        // BCrypt is pure CPU; more threads than cores only adds latency
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException ex) {
+            log.warn("Password hashing queue full ({} active, {} queued), rejecting request",
+                    executor.getActiveCount(), executor.getQueue().size());
+            throw new AuthBusyException("Too many concurrent sign-in requests, please retry shortly");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,138 @@
+package com.smartinventory.inventory.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.smartinventory.inventory.dto.CacheStatsResponseDTO;
+import com.smartinventory.inventory.dto.ProductResponseDTO;
+import com.smartinventory.inventory.event.ProductChangedEvent;
+import com.smartinventory.inventory.event.StockChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of active products, keyed by id with a SKU to id index.
+ * <p>
+ * Values are the immutable {@link ProductResponseDTO}s, never entities, so they can be shared between requests.
+ * Entries are evicted by size (W-TinyLFU) and age. Writes keep it correct after commit: catalog edits,
+ * restores, soft deletes and stock receipts all drop the entry, so the next read loads the committed row.
+ * The event's copy is never cached, as events of two writes to one product can arrive out of order.
+ * A write racing a load of the same id waits for the load and then wins. Loads by SKU and bulk
+ * loads run outside the cache; their results are only cached if no write touched their id (or an id sharing
+ * its stripe) since the load started, so an eviction is never overwritten by what an older read returned.
+ * <p>
+ * Only writes made through this instance reach its cache. A change made through another instance, or directly
+ * in the database, is served stale here until the entry expires ({@code expire-after-write}).
+ */
+@Component
+public class ProductCache {
+    private static final int STRIPES = 1024;
+
+    private final Cache<Long, ProductResponseDTO> byId;
+    private final Cache<String, Long> idBySku;
+    private final long maximumSize;
+    // write sequence, and the sequence of the last write per stripe of ids
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLongArray lastWrite = new AtomicLongArray(STRIPES);
+
+    public ProductCache(@Value("${inventory.product-cache.maximum-size:10000}") long maximumSize,
+                        @Value("${inventory.product-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.maximumSize = maximumSize;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.idBySku = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    public Optional<ProductResponseDTO> get(Long id, Function<Long, Optional<ProductResponseDTO>> loader) {
+        return Optional.ofNullable(byId.get(id, key -> loader.apply(key).map(this::indexSku).orElse(null)));
+    }
+
+    public Optional<ProductResponseDTO> getBySku(String sku, Function<String, Optional<ProductResponseDTO>> loader) {
+        Long id = idBySku.getIfPresent(sku);
+        if (id != null) {
+            ProductResponseDTO cached = byId.getIfPresent(id);
+            // the SKU may have moved to another product since it was indexed
+            if (cached != null && cached.sku().equals(sku)) {
+                return Optional.of(cached);
+            }
+        }
+        long loadStarted = writes.get();
+        Optional<ProductResponseDTO> loaded = loader.apply(sku);
+        loaded.ifPresent(product -> cacheLoaded(product, loadStarted));
+        return loaded;
+    }
+
+    /**
+     * The cached products for {@code ids}, loading the missing ones with one call to {@code loader}.
+     * Ids that don't exist are absent from the result.
+     */
+    public Map<Long, ProductResponseDTO> getAll(Collection<Long> ids,
+                                                Function<Collection<Long>, Map<Long, ProductResponseDTO>> loader) {
+        Map<Long, ProductResponseDTO> found = new HashMap<>(byId.getAllPresent(ids));
+        List<Long> missing = ids.stream().filter(id -> !found.containsKey(id)).distinct().toList();
+        if (!missing.isEmpty()) {
+            long loadStarted = writes.get();
+            Map<Long, ProductResponseDTO> loaded = loader.apply(missing);
+            loaded.values().forEach(product -> cacheLoaded(product, loadStarted));
+            found.putAll(loaded);
+        }
+        return found;
+    }
+
+    public void evict(Long id) {
+        // recorded before the entry goes, so a load already under way can't put it back
+        lastWrite.accumulateAndGet(stripe(id), writes.incrementAndGet(), Math::max);
+        ProductResponseDTO old = byId.asMap().remove(id);
+        if (old != null) {
+            idBySku.asMap().remove(old.sku(), id);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(event.product().id());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        evict(event.productId());
+    }
+
+    public CacheStatsResponseDTO stats() {
+        CacheStats stats = byId.stats();
+        return new CacheStatsResponseDTO(byId.estimatedSize(), maximumSize, stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.loadCount(), stats.averageLoadPenalty() / 1_000_000.0, stats.evictionCount());
+    }
+
+    // a load's result is only cached if nothing was written to its stripe since the load started
+    private void cacheLoaded(ProductResponseDTO product, long loadStarted) {
+        byId.asMap().compute(product.id(), (id, cached) -> {
+            if (cached != null) {
+                return cached;
+            }
+            return lastWrite.get(stripe(id)) <= loadStarted ? indexSku(product) : null;
+        });
+    }
+
+    private static int stripe(Long id) {
+        return (int) (id & (STRIPES - 1));
+    }
+
+    private ProductResponseDTO indexSku(ProductResponseDTO product) {
+        idBySku.put(product.sku(), product.id());
+        return product;
+    }
+}
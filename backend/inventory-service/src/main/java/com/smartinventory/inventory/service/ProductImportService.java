@@ -0,0 +1,286 @@
+package com.smartinventory.inventory.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartinventory.inventory.dto.ProductImportErrorDTO;
+import com.smartinventory.inventory.dto.ProductImportResultDTO;
+import com.smartinventory.inventory.dto.ProductRequestDTO;
+import com.smartinventory.inventory.dto.ProductResponseDTO;
+import com.smartinventory.inventory.entity.Product;
+import com.smartinventory.inventory.entity.UnitOfMeasure;
+import com.smartinventory.inventory.event.ProductChangedEvent;
+import com.smartinventory.inventory.exception.InvalidImportFileException;
+import com.smartinventory.inventory.repository.ProductRepository;
+import com.smartinventory.inventory.util.CsvRecordReader;
+import com.smartinventory.inventory.util.FileFormat;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import from CSV or NDJSON ({@code POST /products/import}).
+ * <p>
+ * The file is parsed as a stream, so memory does not grow with its size. Valid rows are collected into
+ * chunks. For each chunk, duplicate SKUs are found with one {@code IN} query, the remaining rows are inserted
+ * as JDBC batches in one transaction, together with an opening-stock ADJUSTMENT movement for every row with a
+ * quantity, and the persistence context is cleared afterwards. Rows that fail parsing, validation or the
+ * duplicate check are reported with their row number and skipped; the rest of the file is still imported. Chunks already committed stay committed if a later one fails.
+ */
+@Slf4j
+@Service
+public class ProductImportService {
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "sku", "price", "uom");
+
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductImportService(ProductRepository productRepository,
+                                ProductService productService,
+                                TransactionTemplate transactionTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                @Value("${inventory.product-import.chunk-size:1000}") int chunkSize,
+                                @Value("${inventory.product-import.max-errors:1000}") int maxErrors) {
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public ProductImportResultDTO importProducts(InputStream input, FileFormat format) throws IOException {
+        long started = System.currentTimeMillis();
+        ImportRun run = new ImportRun();
+        Reader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+        RowSource rows = format == FileFormat.CSV ? csvRows(reader) : ndjsonRows(reader);
+
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        Row row;
+        while ((row = rows.next()) != null) {
+            run.received++;
+            if (row.error() != null) {
+                run.fail(row.number(), row.sku(), row.error());
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                writeChunk(chunk, run);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, run);
+        }
+        log.info("Product import: {} rows, {} imported, {} failed in {} ms",
+                run.received, run.imported, run.failed, System.currentTimeMillis() - started);
+        return run.result();
+    }
+
+    private void writeChunk(List<Row> chunk, ImportRun run) {
+        Map<String, Row> bySku = new LinkedHashMap<>();
+        for (Row row : chunk) {
+            if (bySku.putIfAbsent(row.sku(), row) != null) {
+                run.fail(row.number(), row.sku(), "SKU " + row.sku() + " appears more than once in the file");
+            }
+        }
+        for (String existing : productRepository.findExistingSkus(bySku.keySet())) {
+            Row row = bySku.remove(existing);
+            if (row != null) {
+                run.fail(row.number(), existing, "SKU " + existing + " already exists");
+            }
+        }
+        if (bySku.isEmpty()) {
+            return;
+        }
+        List<Row> rows = new ArrayList<>(bySku.values());
+        try {
+            run.imported += transactionTemplate.execute(status -> insert(rows));
+        } catch (PersistenceException | DataAccessException ex) {
+            // most likely a SKU inserted concurrently; redo the chunk row by row so only the offender fails
+            for (Row row : rows) {
+                try {
+                    run.imported += transactionTemplate.execute(status -> insert(List.of(row)));
+                } catch (PersistenceException | DataAccessException rowEx) {
+                    run.fail(row.number(), row.sku(), "Could not insert: " + rootMessage(rowEx));
+                }
+            }
+        }
+    }
+
+    // runs inside the chunk transaction
+    private int insert(List<Row> rows) {
+        Session session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(rows.size());
+        List<Product> products = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            Product product = productService.mapToEntity(row.product());
+            entityManager.persist(product);
+            products.add(product);
+        }
+        for (Product product : products) {
+            productService.openingStock(product).ifPresent(entityManager::persist);
+        }
+        entityManager.flush();
+        List<ProductResponseDTO> saved = products.stream().map(productService::mapToResponseDTO).toList();
+        entityManager.clear();
+        // inside the transaction: listeners act once it commits, and the valuation re-reads the chunk in one query
+        for (ProductResponseDTO product : saved) {
+            eventPublisher.publishEvent(new ProductChangedEvent(product, false));
+        }
+        return saved.size();
+    }
+
+    private RowSource csvRows(Reader reader) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new InvalidImportFileException("CSV file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(c -> !columns.containsKey(c)).toList();
+        if (!missing.isEmpty()) {
+            throw new InvalidImportFileException("CSV header is missing column(s) " + String.join(", ", missing)
+                    + "; expected name, sku, price, uom and optionally quantity, description");
+        }
+        long[] number = {0};
+        return () -> {
+            List<String> record = csv.next();
+            if (record == null) {
+                return null;
+            }
+            long row = ++number[0];
+            String sku = column(record, columns, "sku");
+            try {
+                return validated(row, new ProductRequestDTO(
+                        column(record, columns, "name"),
+                        decimal(column(record, columns, "quantity"), BigDecimal.ZERO),
+                        decimal(column(record, columns, "price"), null),
+                        sku,
+                        column(record, columns, "uom"),
+                        column(record, columns, "description")));
+            } catch (NumberFormatException ex) {
+                return new Row(row, sku, null, "Price and quantity must be numbers");
+            }
+        };
+    }
+
+    private RowSource ndjsonRows(Reader reader) {
+        BufferedReader lines = (BufferedReader) reader;
+        long[] number = {0};
+        return () -> {
+            String line;
+            do {
+                line = lines.readLine();
+                if (line == null) {
+                    return null;
+                }
+                number[0]++;
+            } while (line.isBlank());
+            try {
+                return validated(number[0], objectMapper.readValue(line, ProductRequestDTO.class));
+            } catch (JsonProcessingException ex) {
+                return new Row(number[0], null, null, "Malformed JSON: " + ex.getOriginalMessage());
+            }
+        };
+    }
+
+    // same rules as POST /products, plus a known unit of measure
+    private Row validated(long number, ProductRequestDTO product) {
+        String sku = product.sku() == null ? null : product.sku().trim();
+        Set<ConstraintViolation<ProductRequestDTO>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            String message = violations.stream().map(ConstraintViolation::getMessage).sorted()
+                    .collect(Collectors.joining("; "));
+            return new Row(number, sku, null, message);
+        }
+        try {
+            UnitOfMeasure.valueOf(product.uom());
+        } catch (IllegalArgumentException ex) {
+            return new Row(number, sku, null, "Unknown unit of measure " + product.uom());
+        }
+        ProductRequestDTO trimmed = new ProductRequestDTO(product.name(), product.quantity(), product.price(),
+                sku, product.uom(), product.description());
+        return new Row(number, sku, trimmed, null);
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static BigDecimal decimal(String value, BigDecimal whenBlank) {
+        return value == null ? whenBlank : new BigDecimal(value);
+    }
+
+    private static String rootMessage(Throwable ex) {
+        Throwable root = ex;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        // null at end of input
+        Row next() throws IOException;
+    }
+
+    // exactly one of product / error is set
+    private record Row(long number, String sku, ProductRequestDTO product, String error) {
+    }
+
+    private final class ImportRun {
+        long received;
+        long imported;
+        long failed;
+        final List<ProductImportErrorDTO> errors = new ArrayList<>();
+
+        void fail(long row, String sku, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ProductImportErrorDTO(row, sku, message));
+            }
+        }
+
+        ProductImportResultDTO result() {
+            errors.sort(Comparator.comparingLong(ProductImportErrorDTO::row));
+            return new ProductImportResultDTO(received, imported, failed, errors, failed > errors.size());
+        }
+    }
+}
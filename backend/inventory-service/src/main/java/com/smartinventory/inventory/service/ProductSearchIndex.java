@@ -0,0 +1,280 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.dto.ProductResponseDTO;
+import com.smartinventory.inventory.entity.Product;
+import com.smartinventory.inventory.event.ProductChangedEvent;
+import com.smartinventory.inventory.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory trigram index over product name and SKU for {@code /products/search}.
+ * <p>
+ * Every lower-cased field is split into overlapping 3-character grams; a query is answered by intersecting
+ * the posting lists of its own grams (smallest first) and confirming the substring match on the candidates,
+ * so results match the old "containing" semantics without a leading-wildcard LIKE. Queries must be at least
+ * {@link #MIN_QUERY_LENGTH} characters, so every query is answered from the postings. Results are ranked by
+ * where the keyword matched.
+ * <p>
+ * A posting list is a sorted {@code long[]} of product ids, about 8 bytes per id instead of a boxed set entry.
+ * Descriptions are not indexed: they would multiply the postings for matches ranked below every name and SKU
+ * match. New products have the highest ids and are appended in place; removals and other inserts copy the
+ * list.
+ * <p>
+ * The index is built from the database once the application is ready and kept current from
+ * {@link ProductChangedEvent}s after commit; an edit only touches the grams that changed. Writers are
+ * serialised; readers never block.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+    private static final int GRAM = 3;
+    public static final int MIN_QUERY_LENGTH = GRAM;
+
+    private final ProductRepository productRepository;
+    private final int buildChunkSize;
+
+    private final ConcurrentHashMap<Long, IndexedProduct> documents = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Posting> postings = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              @Value("${inventory.search.build-chunk-size:1000}") int buildChunkSize) {
+        this.productRepository = productRepository;
+        this.buildChunkSize = buildChunkSize;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        synchronized (this) {
+            documents.clear();
+            postings.clear();
+            long lastId = 0;
+            List<Product> chunk;
+            while (!(chunk = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(buildChunkSize))).isEmpty()) {
+                for (Product product : chunk) {
+                    put(new IndexedProduct(product.getId(), product.getName(), product.getSku()));
+                }
+                lastId = chunk.get(chunk.size() - 1).getId();
+            }
+            // drop the spare capacity left by the appends
+            postings.replaceAll((gram, posting) -> posting.trimmed());
+            ready = true;
+        }
+        log.info("Product search index built with {} products and {} grams in {} ms",
+                documents.size(), postings.size(), System.currentTimeMillis() - started);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductResponseDTO product = event.product();
+        synchronized (this) {
+            if (event.removed()) {
+                remove(product.id());
+            } else {
+                put(new IndexedProduct(product.id(), product.name(), product.sku()));
+            }
+        }
+    }
+
+    /**
+     * Ids of all products matching {@code keyword}, best match first. Keywords shorter than
+     * {@link #MIN_QUERY_LENGTH} match nothing.
+     */
+    public List<Long> search(String keyword) {
+        String query = normalize(keyword);
+        if (query.length() < MIN_QUERY_LENGTH) {
+            return List.of();
+        }
+        List<Hit> hits = new ArrayList<>();
+        for (IndexedProduct doc : candidates(query)) {
+            int score = doc.score(query);
+            if (score > 0) {
+                hits.add(new Hit(doc, score));
+            }
+        }
+        hits.sort(Comparator.comparingInt(Hit::score).reversed()
+                .thenComparing(h -> h.doc().name)
+                .thenComparingLong(h -> h.doc().id));
+        return hits.stream().map(h -> h.doc().id).toList();
+    }
+
+    private List<IndexedProduct> candidates(String query) {
+        List<Posting> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            Posting posting = postings.get(gram);
+            if (posting == null) {
+                return List.of();
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(Posting::size));
+        Posting smallest = lists.get(0);
+        List<IndexedProduct> result = new ArrayList<>();
+        for (int i = 0; i < smallest.size; i++) {
+            long id = smallest.ids[i];
+            boolean inAll = true;
+            for (int j = 1; j < lists.size() && inAll; j++) {
+                inAll = lists.get(j).contains(id);
+            }
+            IndexedProduct doc = inAll ? documents.get(id) : null;
+            if (doc != null) {
+                result.add(doc);
+            }
+        }
+        return result;
+    }
+
+    // adds or replaces a document, moving its id only in the postings of grams it gained or lost; callers hold the monitor
+    private void put(IndexedProduct doc) {
+        IndexedProduct old = documents.put(doc.id, doc);
+        Set<String> grams = doc.grams();
+        if (old != null) {
+            Set<String> oldGrams = old.grams();
+            for (String gram : oldGrams) {
+                if (!grams.contains(gram)) {
+                    removePosting(gram, doc.id);
+                }
+            }
+            grams.removeAll(oldGrams);
+        }
+        for (String gram : grams) {
+            postings.compute(gram, (g, posting) -> posting == null ? Posting.of(doc.id) : posting.with(doc.id));
+        }
+    }
+
+    // callers hold the monitor
+    private void remove(long id) {
+        IndexedProduct old = documents.remove(id);
+        if (old != null) {
+            old.grams().forEach(gram -> removePosting(gram, id));
+        }
+    }
+
+    private void removePosting(String gram, long id) {
+        postings.computeIfPresent(gram, (g, posting) -> posting.without(id));
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String... values) {
+        Set<String> grams = new HashSet<>();
+        for (String value : values) {
+            for (int i = 0; i + GRAM <= value.length(); i++) {
+                grams.add(value.substring(i, i + GRAM));
+            }
+        }
+        return grams;
+    }
+
+    private record Hit(IndexedProduct doc, int score) {
+    }
+
+    /**
+     * Sorted ids in {@code ids[0, size)}. Never changed once published except past {@code size}: an append
+     * writes the next free slot and publishes a new posting over the same array, so readers of the old one,
+     * which stop at its size, are unaffected.
+     */
+    private static final class Posting {
+        final long[] ids;
+        final int size;
+
+        private Posting(long[] ids, int size) {
+            this.ids = ids;
+            this.size = size;
+        }
+
+        static Posting of(long id) {
+            return new Posting(new long[]{id}, 1);
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        Posting with(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return this;
+            }
+            int insertAt = -at - 1;
+            if (insertAt == size && size < ids.length) {
+                ids[size] = id;
+                return new Posting(ids, size + 1);
+            }
+            long[] grown = new long[size + (size >> 1) + 1];
+            System.arraycopy(ids, 0, grown, 0, insertAt);
+            grown[insertAt] = id;
+            System.arraycopy(ids, insertAt, grown, insertAt + 1, size - insertAt);
+            return new Posting(grown, size + 1);
+        }
+
+        // null once empty, which drops the gram
+        Posting without(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return this;
+            }
+            if (size == 1) {
+                return null;
+            }
+            long[] shrunk = new long[size - 1];
+            System.arraycopy(ids, 0, shrunk, 0, at);
+            System.arraycopy(ids, at + 1, shrunk, at, size - at - 1);
+            return new Posting(shrunk, size - 1);
+        }
+
+        Posting trimmed() {
+            return size == ids.length ? this : new Posting(Arrays.copyOf(ids, size), size);
+        }
+    }
+
+    private static final class IndexedProduct {
+        final long id;
+        final String name;
+        final String nameKey;
+        final String skuKey;
+
+        IndexedProduct(long id, String name, String sku) {
+            this.id = id;
+            this.name = name == null ? "" : name;
+            this.nameKey = normalize(name);
+            this.skuKey = normalize(sku);
+        }
+
+        Set<String> grams() {
+            return ProductSearchIndex.grams(nameKey, skuKey);
+        }
+
+        // 0 = no match; higher is better
+        int score(String query) {
+            if (skuKey.equals(query)) return 100;
+            if (nameKey.equals(query)) return 90;
+            if (skuKey.startsWith(query)) return 80;
+            if (nameKey.startsWith(query)) return 70;
+            if (nameKey.contains(" " + query)) return 60;
+            if (nameKey.contains(query)) return 50;
+            if (skuKey.contains(query)) return 40;
+            return 0;
+        }
+    }
+}
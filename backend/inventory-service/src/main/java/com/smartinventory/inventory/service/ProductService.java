@@ -1,44 +1,170 @@
 package com.smartinventory.inventory.service;
 
+import com.smartinventory.inventory.dto.CacheStatsResponseDTO;
+import com.smartinventory.inventory.dto.CursorPageResponseDTO;
 import com.smartinventory.inventory.dto.ProductRequestDTO;
 import com.smartinventory.inventory.dto.ProductResponseDTO;
+import com.smartinventory.inventory.entity.MovementType;
 import com.smartinventory.inventory.entity.Product;
+import com.smartinventory.inventory.entity.StockMovement;
 import com.smartinventory.inventory.entity.UnitOfMeasure;
+import com.smartinventory.inventory.event.ProductChangedEvent;
+import com.smartinventory.inventory.event.ProductSupplierChangedEvent;
+import com.smartinventory.inventory.event.StockChangedEvent;
+import com.smartinventory.inventory.dto.StockAdjustmentRequestDTO;
 import com.smartinventory.inventory.exception.DuplicateSkuException;
+import com.smartinventory.inventory.exception.InsufficientStockException;
+import com.smartinventory.inventory.exception.InvalidSearchQueryException;
 import com.smartinventory.inventory.exception.ProductNotFoundException;
+import com.smartinventory.inventory.exception.StaleQuantityException;
 import com.smartinventory.inventory.repository.ProductRepository;
+import com.smartinventory.inventory.repository.StockMovementRepository;
+import com.smartinventory.inventory.util.CursorCodec;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import org.springframework.data.domain.Pageable;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
+    private static final String CURSOR_SCOPE = "products";
+    private static final String ADJUSTMENT_REFERENCE = "PRODUCT";
+
     @Autowired
     private ProductRepository productRepository;
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    @Autowired
+    private ProductCache productCache;
 
+    @Transactional
     public ProductResponseDTO addProduct(ProductRequestDTO productRequestDTO) {
         if (productRepository.existsBySku(productRequestDTO.sku())) {
             throw new DuplicateSkuException("SKU " + productRequestDTO.sku() + " already exists");
         }
-        Product product = mapToEntity(productRequestDTO);
-        return mapToResponseDTO(productRepository.save(product));
+        Product product = productRepository.save(mapToEntity(productRequestDTO));
+        openingStock(product).ifPresent(stockMovementRepository::save);
+        ProductResponseDTO saved = mapToResponseDTO(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved, false));
+        return saved;
+    }
+
+    /**
+     * The ADJUSTMENT movement recording a new product's initial quantity, if it has any, so the ledger
+     * accounts for all of its stock.
+     */
+    public Optional<StockMovement> openingStock(Product product) {
+        BigDecimal quantity = product.getQuantity() == null ? BigDecimal.ZERO : product.getQuantity();
+        return quantity.signum() == 0 ? Optional.empty() : Optional.of(adjustment(product, quantity, "Opening stock"));
+    }
+
+    // stock set outside receipts; ADJUSTMENT quantities are signed
+    private static StockMovement adjustment(Product product, BigDecimal delta, String note) {
+        return StockMovement.builder()
+                .product(product)
+                .movementType(MovementType.ADJUSTMENT)
+                .quantity(delta)
+                .referenceType(ADJUSTMENT_REFERENCE)
+                .referenceId(product.getId())
+                .note(note)
+                .build();
     }
 
     public ProductResponseDTO getProductById(long id) {
-        return productRepository.findById(id).map(this::mapToResponseDTO).orElseThrow(() -> new ProductNotFoundException("Product with id " + id + " not found"));
+        return productCache.get(id, key -> productRepository.findById(key).map(this::mapToResponseDTO))
+                .orElseThrow(() -> new ProductNotFoundException("Product with id " + id + " not found"));
+    }
+
+    public ProductResponseDTO getProductBySku(String sku) {
+        return productCache.getBySku(sku, key -> productRepository.findBySku(key).map(this::mapToResponseDTO))
+                .orElseThrow(() -> new ProductNotFoundException("Product with SKU " + sku + " not found"));
+    }
+
+    // cached products by id, missing ones loaded in one query; unknown ids are left out
+    public Map<Long, ProductResponseDTO> getProductsByIds(Collection<Long> ids) {
+        return productCache.getAll(ids, missing -> productRepository.findByIdIn(missing).stream()
+                .collect(Collectors.toMap(Product::getId, this::mapToResponseDTO)));
+    }
+
+    public CacheStatsResponseDTO getCacheStats() {
+        return productCache.stats();
     }
 
     public Page<ProductResponseDTO> getAllProducts(Pageable pageable) {
         return productRepository.findAll(pageable).map(this::mapToResponseDTO);
     }
 
-    public List<ProductResponseDTO> searchProducts(String keyword) {
-        return productRepository.findByNameContainingIgnoreCase(keyword).stream().map(this::mapToResponseDTO).toList();
+    // same page without the count(*) query
+    public Slice<ProductResponseDTO> getAllProductsSlice(Pageable pageable) {
+        return productRepository.findAllBy(pageable).map(this::mapToResponseDTO);
+    }
+
+    // keyset page in id order: an index seek past the cursor, so every page costs the same
+    public CursorPageResponseDTO<ProductResponseDTO> getProductsAfter(String cursor, int size) {
+        long afterId = cursor == null || cursor.isBlank() ? 0 : CursorCodec.decodeId(cursor, CURSOR_SCOPE);
+        int pageSize = CursorCodec.clampSize(size);
+        List<Product> rows = productRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        return CursorPageResponseDTO.of(rows, pageSize, this::mapToResponseDTO,
+                p -> CursorCodec.encode(CURSOR_SCOPE, p.getId()));
+    }
+
+    // Ranked search over name and SKU; falls back to the name LIKE until the index is built
+    public Page<ProductResponseDTO> searchProducts(String keyword, Pageable pageable) {
+        if (keyword == null || keyword.trim().length() < ProductSearchIndex.MIN_QUERY_LENGTH) {
+            throw new InvalidSearchQueryException(
+                    "Search keyword must be at least " + ProductSearchIndex.MIN_QUERY_LENGTH + " characters");
+        }
+        if (!productSearchIndex.isReady()) {
+            List<ProductResponseDTO> matches = productRepository.findByNameContainingIgnoreCase(keyword).stream()
+                    .sorted(Comparator.comparing(Product::getName).thenComparing(Product::getId))
+                    .map(this::mapToResponseDTO)
+                    .toList();
+            return new PageImpl<>(slice(matches, pageable), pageable, matches.size());
+        }
+        List<Long> rankedIds = productSearchIndex.search(keyword);
+        List<Long> pageIds = slice(rankedIds, pageable);
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, rankedIds.size());
+        }
+        // one query for the page, put back into ranked order
+        Map<Long, Product> byId = productRepository.findByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<ProductResponseDTO> content = pageIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToResponseDTO)
+                .toList();
+        return new PageImpl<>(content, pageable, rankedIds.size());
+    }
+
+    private static <T> List<T> slice(List<T> all, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return all;
+        }
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        int to = Math.min(from + pageable.getPageSize(), all.size());
+        return all.subList(from, to);
     }
 
     public void deleteProduct(Long id) {
@@ -49,21 +175,57 @@ public class ProductService {
         product.setDeletedAt(LocalDateTime.now());
 
         productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(mapToResponseDTO(product), true));
     }
 
 
+    /**
+     * Catalog edit. Quantity is not set here: receipts move it without bumping the version, so a client's copy
+     * can be behind the row even when the version matches, and writing it back would undo them. The submitted
+     * quantity must therefore still be the current one; stock changes go through {@link #adjustStock}.
+     */
+    @Transactional
     public ProductResponseDTO updateProduct(long id,ProductRequestDTO productRequestDTO) {
         Product product = productRepository.findById(id).orElseThrow(()->new ProductNotFoundException("Product with id " + id + " not found"));
         if (!product.getSku().equals(productRequestDTO.sku()) && productRepository.existsBySku(productRequestDTO.sku())) {
             throw new DuplicateSkuException("SKU " + productRequestDTO.sku() + " already exists");
         }
+        BigDecimal currentQuantity = product.getQuantity() == null ? BigDecimal.ZERO : product.getQuantity();
+        if (productRequestDTO.quantity().compareTo(currentQuantity) != 0) {
+            throw new StaleQuantityException("Quantity of product " + id + " is " + currentQuantity.toPlainString()
+                    + ", not " + productRequestDTO.quantity().toPlainString()
+                    + "; change stock with POST /products/" + id + "/stock-adjustments");
+        }
         product.setName(productRequestDTO.name());
         product.setDescription(productRequestDTO.description());
         product.setPrice(productRequestDTO.price());
-        product.setQuantity(productRequestDTO.quantity());
         product.setSku(productRequestDTO.sku());
         product.setUom(UnitOfMeasure.valueOf(productRequestDTO.uom()));
-        return mapToResponseDTO(productRepository.save(product));
+        ProductResponseDTO saved = mapToResponseDTO(productRepository.save(product));
+        eventPublisher.publishEvent(new ProductChangedEvent(saved, false));
+        return saved;
+    }
+
+    /**
+     * Moves on-hand stock by a signed delta, in the database like a receipt, and records it as an ADJUSTMENT
+     * movement. Refused if it would take the quantity below zero.
+     */
+    @Transactional
+    public ProductResponseDTO adjustStock(long id, StockAdjustmentRequestDTO dto) {
+        if (!productRepository.existsById(id)) {
+            throw new ProductNotFoundException("Product with id " + id + " not found");
+        }
+        if (dto.delta().signum() != 0) {
+            if (productRepository.addQuantityIfAvailable(id, dto.delta()) == 0) {
+                throw new InsufficientStockException("Adjusting product " + id + " by " + dto.delta().toPlainString()
+                        + " would take its quantity below zero");
+            }
+            stockMovementRepository.save(adjustment(productRepository.getReferenceById(id), dto.delta(),
+                    dto.note() == null ? "Stock adjustment" : dto.note()));
+            eventPublisher.publishEvent(new StockChangedEvent(id, dto.delta()));
+        }
+        return productRepository.findById(id).map(this::mapToResponseDTO)
+                .orElseThrow(() -> new ProductNotFoundException("Product with id " + id + " not found"));
     }
 
     public Product mapToEntity(ProductRequestDTO productRequestDTO) {
@@ -88,14 +250,17 @@ public class ProductService {
                 product.getCreatedAt(),
                 product.getUpdatedAt());
     }
+    @Transactional
     public void restoreProduct(Long id) {
-        Product product = productRepository.findById(id)
+        Product product = productRepository.findByIdIncludingInactive(id)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id " + id));
 
         product.setActive(true);
         product.setDeletedAt(null);
-
-        productRepository.save(product);
+        // managed, so flushed on commit; save() would merge, and merge looks the id up as active only
+        eventPublisher.publishEvent(new ProductChangedEvent(mapToResponseDTO(product), false));
+        // its supplier mappings were ignored while it was deleted
+        eventPublisher.publishEvent(new ProductSupplierChangedEvent(id, null));
     }
 
 }
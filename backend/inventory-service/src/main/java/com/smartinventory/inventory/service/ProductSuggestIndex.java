@@ -0,0 +1,341 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.dto.ProductResponseDTO;
+import com.smartinventory.inventory.dto.ProductSuggestionDTO;
+import com.smartinventory.inventory.entity.Product;
+import com.smartinventory.inventory.event.ProductChangedEvent;
+import com.smartinventory.inventory.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typeahead over product SKUs and names, backed by a compressed (radix) trie.
+ * <p>
+ * Both the lower-cased SKU and the lower-cased name of every active product are keys of one trie; edges carry
+ * whole label strings, so SKUs that share a long prefix ({@code SKU-00012...}) share their nodes. A lookup
+ * walks down to the prefix and collects the first {@code limit} products in lexicographic key order,
+ * touching only the nodes it returns. No database access happens on the read path.
+ * <p>
+ * Built from the database once the application is ready and kept in sync from {@link ProductChangedEvent}s.
+ * A rebuild scans into a new trie without holding the lock, so suggestions keep being served from the current
+ * one; changes that arrive meanwhile are applied to both, and the new trie is swapped in under the write lock.
+ */
+@Slf4j
+@Component
+public class ProductSuggestIndex {
+    private static final long[] NO_IDS = new long[0];
+
+    private final ProductRepository productRepository;
+    private final int buildChunkSize;
+    private final int maxLimit;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Trie trie = new Trie();
+    // latest change per product (empty = removed) while a rebuild scans, replayed onto its trie; null otherwise
+    private Map<Long, Optional<ProductSuggestionDTO>> changedDuringBuild;
+
+    public ProductSuggestIndex(ProductRepository productRepository,
+                               @Value("${inventory.search.build-chunk-size:1000}") int buildChunkSize,
+                               @Value("${inventory.suggest.max-limit:50}") int maxLimit) {
+        this.productRepository = productRepository;
+        this.buildChunkSize = buildChunkSize;
+        this.maxLimit = maxLimit;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Trie built = new Trie();
+        boolean scanned = false;
+        try {
+            long lastId = 0;
+            List<Product> chunk;
+            while (!(chunk = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(buildChunkSize))).isEmpty()) {
+                for (Product product : chunk) {
+                    built.add(new ProductSuggestionDTO(product.getId(), product.getSku(), product.getName()));
+                }
+                lastId = chunk.get(chunk.size() - 1).getId();
+            }
+            scanned = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                Map<Long, Optional<ProductSuggestionDTO>> changed = changedDuringBuild;
+                changedDuringBuild = null;
+                // a failed scan keeps serving the current trie
+                if (scanned) {
+                    // the scan may have read these before or after their change; the event is the newer copy
+                    changed.forEach((id, product) -> {
+                        built.remove(id);
+                        product.ifPresent(built::add);
+                    });
+                    trie = built;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Product suggest index built with {} products in {} ms",
+                built.products.size(), System.currentTimeMillis() - started);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductResponseDTO product = event.product();
+        Optional<ProductSuggestionDTO> suggestion = event.removed() ? Optional.empty()
+                : Optional.of(new ProductSuggestionDTO(product.id(), product.sku(), product.name()));
+        lock.writeLock().lock();
+        try {
+            trie.remove(product.id());
+            suggestion.ifPresent(trie::add);
+            if (changedDuringBuild != null) {
+                changedDuringBuild.put(product.id(), suggestion);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} products whose SKU or name starts with {@code prefix} (case-insensitive).
+     */
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        int k = Math.max(1, Math.min(limit, maxLimit));
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = trie.find(key);
+            if (node == null) {
+                return List.of();
+            }
+            LinkedHashSet<Long> ids = new LinkedHashSet<>();
+            collect(node, ids, k);
+            List<ProductSuggestionDTO> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                result.add(trie.products.get(id));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // pre-order with children in character order is lexicographic order of the keys
+    private static void collect(Node node, Set<Long> ids, int limit) {
+        for (long id : node.ids) {
+            ids.add(id);
+            if (ids.size() == limit) {
+                return;
+            }
+        }
+        for (Node child : node.children) {
+            collect(child, ids, limit);
+            if (ids.size() == limit) {
+                return;
+            }
+        }
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static Set<String> keys(ProductSuggestionDTO product) {
+        Set<String> keys = new HashSet<>(2);
+        String sku = normalize(product.sku());
+        String name = normalize(product.name());
+        if (!sku.isEmpty()) keys.add(sku);
+        if (!name.isEmpty()) keys.add(name);
+        return keys;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // one index generation: the keys' trie and the products it points to; guarded by the enclosing lock once
+    // published, confined to the rebuilding thread before
+    private static final class Trie {
+        final Map<Long, ProductSuggestionDTO> products = new HashMap<>();
+        final Node root = new Node("");
+
+        void add(ProductSuggestionDTO product) {
+            products.put(product.id(), product);
+            for (String key : keys(product)) {
+                insert(key, product.id());
+            }
+        }
+
+        void remove(Long id) {
+            ProductSuggestionDTO old = products.remove(id);
+            if (old == null) {
+                return;
+            }
+            for (String key : keys(old)) {
+                delete(root, key, id);
+            }
+        }
+
+        private void insert(String key, long id) {
+            Node node = root;
+            int pos = 0;
+            while (pos < key.length()) {
+                int index = node.childIndex(key.charAt(pos));
+                if (index < 0) {
+                    node.insertChild(-index - 1, new Node(key.substring(pos))).addId(id);
+                    return;
+                }
+                Node child = node.children[index];
+                int common = commonPrefix(child.label, key, pos);
+                if (common < child.label.length()) {
+                    // split the edge: node -> middle(common part) -> child(rest)
+                    Node middle = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    middle.children = new Node[]{child};
+                    node.children[index] = middle;
+                    child = middle;
+                }
+                node = child;
+                pos += common;
+            }
+            node.addId(id);
+        }
+
+        // returns true when the node became empty and can be dropped by its parent
+        private boolean delete(Node node, String key, long id) {
+            if (key.isEmpty()) {
+                node.removeId(id);
+            } else {
+                int index = node.childIndex(key.charAt(0));
+                if (index < 0) {
+                    return false;
+                }
+                Node child = node.children[index];
+                if (!key.startsWith(child.label)) {
+                    return false;
+                }
+                if (delete(child, key.substring(child.label.length()), id)) {
+                    node.removeChild(index);
+                } else if (child.ids.length == 0 && child.children.length == 1) {
+                    // keep the trie compressed: fold a pass-through node into its only child
+                    Node grandChild = child.children[0];
+                    grandChild.label = child.label + grandChild.label;
+                    node.children[index] = grandChild;
+                }
+            }
+            return node != root && node.ids.length == 0 && node.children.length == 0;
+        }
+
+        // node whose subtree holds every key starting with the prefix
+        Node find(String prefix) {
+            Node node = root;
+            int pos = 0;
+            while (pos < prefix.length()) {
+                int index = node.childIndex(prefix.charAt(pos));
+                if (index < 0) {
+                    return null;
+                }
+                Node child = node.children[index];
+                int common = commonPrefix(child.label, prefix, pos);
+                if (pos + common == prefix.length()) {
+                    return child;    // prefix ends on or inside this edge
+                }
+                if (common < child.label.length()) {
+                    return null;
+                }
+                node = child;
+                pos += common;
+            }
+            return node;
+        }
+    }
+
+    private static final class Node {
+        String label;
+        Node[] children = new Node[0];    // sorted by first label character
+        long[] ids = NO_IDS;              // products whose key ends here
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        int childIndex(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = children[mid].label.charAt(0);
+                if (midChar < c) {
+                    low = mid + 1;
+                } else if (midChar > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        Node insertChild(int at, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, at);
+            grown[at] = child;
+            System.arraycopy(children, at, grown, at + 1, children.length - at);
+            children = grown;
+            return child;
+        }
+
+        void removeChild(int at) {
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, at);
+            System.arraycopy(children, at + 1, shrunk, at, children.length - at - 1);
+            children = shrunk;
+        }
+
+        void addId(long id) {
+            for (long existing : ids) {
+                if (existing == id) {
+                    return;
+                }
+            }
+            long[] grown = Arrays.copyOf(ids, ids.length + 1);
+            grown[ids.length] = id;
+            ids = grown;
+        }
+
+        void removeId(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    long[] shrunk = new long[ids.length - 1];
+                    System.arraycopy(ids, 0, shrunk, 0, i);
+                    System.arraycopy(ids, i + 1, shrunk, i, ids.length - i - 1);
+                    ids = shrunk.length == 0 ? NO_IDS : shrunk;
+                    return;
+                }
+            }
+        }
+    }
+}
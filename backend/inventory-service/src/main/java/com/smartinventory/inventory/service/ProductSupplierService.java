@@ -5,12 +5,14 @@ import com.smartinventory.inventory.dto.ProductSupplierResponseDTO;
 import com.smartinventory.inventory.entity.Product;
 import com.smartinventory.inventory.entity.ProductSupplier;
 import com.smartinventory.inventory.entity.Supplier;
+import com.smartinventory.inventory.event.ProductSupplierChangedEvent;
 import com.smartinventory.inventory.exception.ProductNotFoundException;
 import com.smartinventory.inventory.exception.SupplierNotFoundException;
 import com.smartinventory.inventory.repository.ProductRepository;
 import com.smartinventory.inventory.repository.ProductSupplierRepository;
 import com.smartinventory.inventory.repository.SupplierRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +26,8 @@ public class ProductSupplierService {
     private SupplierRepository supplierRepository;
     @Autowired
     private ProductSupplierRepository productSupplierRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ProductSupplierResponseDTO addProductSupplier(ProductSupplierRequestDTO productSupplierRequestDTO) {
@@ -34,6 +38,7 @@ public class ProductSupplierService {
         }
         ProductSupplier productSupplier = ProductSupplier.builder().product(product).supplier(supplier).supplierPrice(productSupplierRequestDTO.supplierPrice()).leadTimeDays(productSupplierRequestDTO.leadTimeDays()).preferredSupplier(productSupplierRequestDTO.preferredSupplier()).build();
         ProductSupplier saved = productSupplierRepository.save(productSupplier);
+        eventPublisher.publishEvent(new ProductSupplierChangedEvent(product.getId(), supplier.getId()));
         return mapToDTO(saved);
     }
 
@@ -60,14 +65,16 @@ public class ProductSupplierService {
         if (dto.leadTimeDays() != null) ps.setLeadTimeDays(dto.leadTimeDays());
         if (dto.preferredSupplier() != null) ps.setPreferredSupplier(dto.preferredSupplier());
 
-        return mapToDTO(productSupplierRepository.save(ps));
+        ProductSupplierResponseDTO saved = mapToDTO(productSupplierRepository.save(ps));
+        eventPublisher.publishEvent(new ProductSupplierChangedEvent(saved.productId(), saved.supplierId()));
+        return saved;
     }
 
     @Transactional
     public void deleteProductSupplier(Long id) {
-        if (!productSupplierRepository.existsById(id)) {
-            throw new IllegalArgumentException("Mapping not found with id " + id);
-        }
-        productSupplierRepository.deleteById(id);
+        ProductSupplier ps = productSupplierRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Mapping not found with id " + id));
+        productSupplierRepository.delete(ps);
+        eventPublisher.publishEvent(new ProductSupplierChangedEvent(ps.getProduct().getId(), ps.getSupplier().getId()));
     }
 }
@@ -0,0 +1,88 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.dto.ProductResponseDTO;
+import com.smartinventory.inventory.dto.PurchaseOrderLineRequestDTO;
+import com.smartinventory.inventory.entity.*;
+import com.smartinventory.inventory.exception.DuplicateLineItemException;
+import com.smartinventory.inventory.exception.InvalidSupplierProductRelationException;
+import com.smartinventory.inventory.exception.ProductNotFoundException;
+import com.smartinventory.inventory.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Turns the requested PO lines into {@link PurchaseOrderLine}s with a fixed number of queries (one for any
+ * products not in the product cache, and one for any supplier prices not in the {@link SupplierPriceMatrix})
+ * no matter how many lines the order has. Lines point at product references, so the products themselves are not loaded.
+ * Every missing product or supplier relation is reported in one exception instead of failing on the first.
+ */
+@Component
+@RequiredArgsConstructor
+public class PurchaseOrderLineResolver {
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final SupplierPriceMatrix supplierPriceMatrix;
+
+    /**
+     * Rejects requests that list the same product twice. Runs on the request alone, before any database work.
+     */
+    public void rejectDuplicateLines(List<PurchaseOrderLineRequestDTO> lineDTOs) {
+        Set<Long> seen = new HashSet<>();
+        Set<Long> duplicates = new TreeSet<>();
+        for (PurchaseOrderLineRequestDTO lineDTO : lineDTOs) {
+            if (!seen.add(lineDTO.productId())) {
+                duplicates.add(lineDTO.productId());
+            }
+        }
+        if (!duplicates.isEmpty()) {
+            throw new DuplicateLineItemException("Duplicate product lines are not allowed in a Purchase Order: " + duplicates);
+        }
+    }
+
+    public List<PurchaseOrderLine> resolve(PurchaseOrder po, List<PurchaseOrderLineRequestDTO> lineDTOs) {
+        Supplier supplier = po.getSupplier();
+        Set<Long> productIds = lineDTOs.stream()
+                .map(PurchaseOrderLineRequestDTO::productId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (productIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, ProductResponseDTO> products = productService.getProductsByIds(productIds);
+        List<Long> missing = productIds.stream().filter(id -> !products.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            throw new ProductNotFoundException("Products not found: " + missing);
+        }
+
+        Map<Long, BigDecimal> supplierPrices = supplierPriceMatrix.findPrices(supplier.getId(), productIds);
+        List<String> notSupplied = productIds.stream()
+                .filter(id -> !supplierPrices.containsKey(id))
+                .map(id -> products.get(id).name())
+                .toList();
+        if (!notSupplied.isEmpty()) {
+            throw new InvalidSupplierProductRelationException(
+                    "Supplier " + supplier.getName() + " does not supply products " + notSupplied
+            );
+        }
+
+        List<PurchaseOrderLine> lines = new ArrayList<>(lineDTOs.size());
+        for (PurchaseOrderLineRequestDTO lineDTO : lineDTOs) {
+            BigDecimal qty = lineDTO.quantity();
+            BigDecimal unitPrice = supplierPrices.get(lineDTO.productId());
+            lines.add(PurchaseOrderLine.builder()
+                    .purchaseOrder(po)
+                    .product(productRepository.getReferenceById(lineDTO.productId()))
+                    .quantity(qty)
+                    .unitPrice(unitPrice)
+                    .subtotal(unitPrice.multiply(qty))
+                    .receivedQuantity(BigDecimal.ZERO)
+                    .lineStatus(LineStatus.PENDING)
+                    .build());
+        }
+        return lines;
+    }
+}
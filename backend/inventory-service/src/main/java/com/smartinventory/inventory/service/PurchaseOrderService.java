@@ -2,17 +2,20 @@ package com.smartinventory.inventory.service;
 
 import com.smartinventory.inventory.dto.*;
 import com.smartinventory.inventory.entity.*;
+import com.smartinventory.inventory.event.StockChangedEvent;
 import com.smartinventory.inventory.exception.*;
 import com.smartinventory.inventory.repository.*;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
+import com.smartinventory.inventory.util.CursorCodec;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -20,64 +23,42 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class PurchaseOrderService {
-    @PersistenceContext
-    private final EntityManager entityManager;
+    private static final String CURSOR_SCOPE = "purchase-orders";
+
     private final PurchaseOrderRepository purchaseOrderRepository;
+    private final PurchaseOrderLineRepository purchaseOrderLineRepository;
     private final SupplierRepository supplierRepository;
     private final ProductRepository productRepository;
-    private final ProductSupplierRepository productSupplierRepository;
     private final StockMovementRepository stockMovementRepository;
+    private final PurchaseOrderLineResolver lineResolver;
+    private final OrderNumberAllocator orderNumberAllocator;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public PurchaseOrderResponseDTO createPurchaseOrder(PurchaseOrderRequestDTO dto) {
+        return createPurchaseOrder(dto, null);
+    }
+
+    /**
+     * Creates a draft purchase order from the replenishment run of {@code replenishmentDate} (null if it
+     * wasn't). The database holds at most one order per supplier and replenishment date.
+     */
+    @Transactional
+    public PurchaseOrderResponseDTO createPurchaseOrder(PurchaseOrderRequestDTO dto, LocalDate replenishmentDate) {
+        lineResolver.rejectDuplicateLines(dto.productLines());
         // Validate supplier
         Supplier supplier = supplierRepository.findById(dto.supplierId())
                 .orElseThrow(() -> new SupplierNotFoundException("Supplier not found with id: " + dto.supplierId()));
-        Long nextOrderNumber = ((Number) entityManager.createNativeQuery("SELECT nextval('order_number_seq')").getSingleResult()).longValue();
         PurchaseOrder po = PurchaseOrder.builder()
                 .supplier(supplier)
                 .orderDate(LocalDateTime.now())
                 .orderStatus(OrderStatus.DRAFT)
-                .orderNumber("ORDER-"+String.format("%05d",nextOrderNumber))
+                .replenishmentDate(replenishmentDate)
                 .build();
-        List<PurchaseOrderLine> lines = dto.productLines().stream().map(lineDTO -> {
-            Product product = productRepository.findById(lineDTO.productId())
-                    .orElseThrow(() -> new ProductNotFoundException("Product not found: " + lineDTO.productId()));
-
-            boolean supplied = productSupplierRepository
-                    .findByProductIdAndSupplierId(product.getId(), supplier.getId())
-                    .isPresent();
-
-            if (!supplied) {
-                throw new InvalidSupplierProductRelationException(
-                        "Supplier " + supplier.getName() + " does not supply product " + product.getName()
-                );
-            }
-
-            ProductSupplier ps = (ProductSupplier) productSupplierRepository
-                    .findByProductIdAndSupplierId(product.getId(), supplier.getId())
-                    .orElseThrow(() -> new InvalidSupplierProductRelationException("Invalid relation"));
-
-            BigDecimal qty = lineDTO.quantity();
-            BigDecimal unitPrice = ps.getSupplierPrice();
+        List<PurchaseOrderLine> lines = lineResolver.resolve(po, dto.productLines());
 
-            return PurchaseOrderLine.builder()
-                    .purchaseOrder(po)
-                    .product(product)
-                    .quantity(qty)
-                    .unitPrice(unitPrice)
-                    .subtotal(unitPrice.multiply(qty))
-                    .receivedQuantity(BigDecimal.ZERO)
-                    .lineStatus(LineStatus.PENDING)
-                    .build();
-        }).collect(Collectors.toList());
-
-        Set<Long> uniqueProducts = lines.stream()
-                .map(line -> line.getProduct().getId())
-                .collect(Collectors.toSet());
-        if (uniqueProducts.size() != lines.size()) {
-            throw new DuplicateLineItemException("Duplicate product lines are not allowed in a Purchase Order");
-        }
+        // only allocate an order number once the lines are known to be valid
+        po.setOrderNumber(orderNumberAllocator.nextOrderNumber());
         po.setPurchaseOrderLineList(lines);
 
         // Calculate total amount
@@ -87,19 +68,27 @@ public class PurchaseOrderService {
         po.setTotalAmount(totalAmount);
 
         PurchaseOrder saved = purchaseOrderRepository.save(po);
-        return mapToResponseDTO(saved);
+        return toResponseDTOs(List.of(saved)).get(0);
     }
 
     public PurchaseOrderResponseDTO getPurchaseOrder(Long id) {
         PurchaseOrder po = purchaseOrderRepository.findById(id)
                 .orElseThrow(() -> new PurchaseOrderNotFoundException("Purchase Order not found: " + id));
-        return mapToResponseDTO(po);
+        return toResponseDTOs(List.of(po)).get(0);
     }
 
     public List<PurchaseOrderResponseDTO> getAllPurchaseOrders(Pageable pageable) {
-        return purchaseOrderRepository.findAll(pageable).stream()
-                .map(this::mapToResponseDTO)
-                .collect(Collectors.toList());
+        // the total is not returned, so fetch a Slice and skip the count(*)
+        return toResponseDTOs(purchaseOrderRepository.findAllBy(pageable).getContent());
+    }
+
+    public CursorPageResponseDTO<PurchaseOrderResponseDTO> getPurchaseOrdersAfter(String cursor, int size) {
+        long afterId = cursor == null || cursor.isBlank() ? 0 : CursorCodec.decodeId(cursor, CURSOR_SCOPE);
+        int pageSize = CursorCodec.clampSize(size);
+        List<PurchaseOrder> rows = purchaseOrderRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        CursorPageResponseDTO<PurchaseOrder> page = CursorPageResponseDTO.of(rows, pageSize, po -> po,
+                po -> CursorCodec.encode(CURSOR_SCOPE, po.getId()));
+        return new CursorPageResponseDTO<>(toResponseDTOs(page.content()), page.size(), page.nextCursor(), page.hasNext());
     }
 
     @Transactional
@@ -113,7 +102,7 @@ public class PurchaseOrderService {
             throw new InvalidOrderStateException("Order already received");
         }
         po.setOrderStatus(OrderStatus.CONFIRMED);
-        return mapToResponseDTO(purchaseOrderRepository.save(po));
+        return toResponseDTOs(List.of(purchaseOrderRepository.save(po))).get(0);
     }
 
     @Transactional
@@ -132,23 +121,122 @@ public class PurchaseOrderService {
      */
     @Transactional
     public PurchaseOrderResponseDTO receivePurchaseOrder(Long poId, PurchaseOrderReceiveRequestDTO request) {
-        PurchaseOrder po = purchaseOrderRepository.findById(poId)
-                .orElseThrow(() -> new PurchaseOrderNotFoundException("PO not found: " + poId));
+        return toResponseDTOs(receive(Map.of(poId, request.lines()), request.receiptNumber())).get(0);
+    }
+
+    /**
+     * Receiving session: one dock receipt covering lines of many POs, applied in a single transaction.
+     * Quantities are summed per product, so each product row is updated once, and all movements are
+     * written together.
+     */
+    @Transactional
+    public ReceivingSessionResponseDTO receiveSession(ReceivingSessionRequestDTO request) {
+        Map<Long, List<PurchaseOrderReceiveLineDTO>> linesByOrder = new LinkedHashMap<>();
+        for (ReceivingSessionOrderDTO order : request.orders()) {
+            linesByOrder.computeIfAbsent(order.purchaseOrderId(), k -> new ArrayList<>()).addAll(order.lines());
+        }
+        List<PurchaseOrder> received = receive(linesByOrder, request.receiptNumber());
+        return new ReceivingSessionResponseDTO(request.receiptNumber(), toResponseDTOs(received));
+    }
+
+    // callers hold a transaction; returns the orders in id order
+    private List<PurchaseOrder> receive(Map<Long, List<PurchaseOrderReceiveLineDTO>> linesByOrder, String receiptNumber) {
+        // rows locked in id order, so sessions sharing orders queue up instead of deadlocking or double-receiving
+        List<PurchaseOrder> orders = purchaseOrderRepository.lockForReceiving(linesByOrder.keySet());
+        if (orders.size() < linesByOrder.size()) {
+            Set<Long> found = orders.stream().map(PurchaseOrder::getId).collect(Collectors.toSet());
+            Long missing = linesByOrder.keySet().stream().filter(id -> !found.contains(id)).findFirst().orElseThrow();
+            throw new PurchaseOrderNotFoundException("PO not found: " + missing);
+        }
+        // initialises the line collections of the locked orders in one more query
+        purchaseOrderRepository.fetchLines(linesByOrder.keySet());
+
+        List<StockMovement> movementsToSave = new ArrayList<>();
+        // sorted by product id so concurrent receipts lock product rows in the same order
+        Map<Long, BigDecimal> stockDeltas = new TreeMap<>();
+        for (PurchaseOrder po : orders) {
+            applyReceipt(po, linesByOrder.get(po.getId()), receiptNumber, stockDeltas, movementsToSave);
+        }
+        applyStock(stockDeltas, movementsToSave);
+        return purchaseOrderRepository.saveAll(orders);
+    }
+
+    /**
+     * Applies receipts queued by the asynchronous receive endpoint in the caller's transaction, merged like a
+     * receiving session: one quantity update per product and one batch of movements. A receipt that can't be
+     * applied (order gone or cancelled, unknown line) is skipped without touching the others.
+     *
+     * @return reason per skipped receipt id; receipts not in the map were applied
+     */
+    @Transactional
+    public Map<Long, String> receiveQueued(List<QueuedReceipt> receipts) {
+        Set<Long> orderIds = receipts.stream().map(QueuedReceipt::purchaseOrderId).collect(Collectors.toCollection(TreeSet::new));
+        Map<Long, PurchaseOrder> orders = purchaseOrderRepository.lockForReceiving(orderIds).stream()
+                .collect(Collectors.toMap(PurchaseOrder::getId, po -> po));
+        purchaseOrderRepository.fetchLines(orderIds);
 
+        Map<Long, String> rejected = new HashMap<>();
+        List<StockMovement> movementsToSave = new ArrayList<>();
+        Map<Long, BigDecimal> stockDeltas = new TreeMap<>();
+        for (QueuedReceipt receipt : receipts) {
+            PurchaseOrder po = orders.get(receipt.purchaseOrderId());
+            String problem = receiptProblem(receipt.purchaseOrderId(), po, receipt.lines());
+            if (problem != null) {
+                rejected.put(receipt.receiptId(), problem);
+                continue;
+            }
+            applyReceipt(po, receipt.lines(), receipt.receiptNumber(), stockDeltas, movementsToSave);
+        }
+        applyStock(stockDeltas, movementsToSave);
+        purchaseOrderRepository.saveAll(orders.values());
+        return rejected;
+    }
+
+    // the checks applyReceipt would throw on, made up front so a bad receipt leaves its order untouched
+    private static String receiptProblem(Long poId, PurchaseOrder po, List<PurchaseOrderReceiveLineDTO> lines) {
+        if (po == null) {
+            return "PO not found: " + poId;
+        }
         if (po.getOrderStatus() == OrderStatus.CANCELLED) {
-            throw new InvalidOrderStateException("Cannot receive a cancelled PO");
+            return "Cannot receive a cancelled PO " + poId;
+        }
+        Set<Long> lineIds = po.getPurchaseOrderLineList().stream().map(PurchaseOrderLine::getId).collect(Collectors.toSet());
+        for (PurchaseOrderReceiveLineDTO line : lines) {
+            if (!lineIds.contains(line.lineId())) {
+                return "Line " + line.lineId() + " not part of PO " + poId;
+            }
+        }
+        return null;
+    }
+
+    private void applyStock(Map<Long, BigDecimal> stockDeltas, List<StockMovement> movementsToSave) {
+        // quantity = quantity + delta in the database: no read-modify-write, no version bump, so hot SKUs
+        // received at several docks at once don't fail on optimistic locking or conflict with catalog edits
+        stockDeltas.forEach((productId, delta) -> {
+            if (productRepository.addQuantity(productId, delta) == 0) {
+                throw new ProductNotFoundException("Product not found: " + productId);
+            }
+            eventPublisher.publishEvent(new StockChangedEvent(productId, delta));
+        });
+        if (!movementsToSave.isEmpty()) {
+            stockMovementRepository.saveAll(movementsToSave);
+        }
+    }
+
+    private void applyReceipt(PurchaseOrder po, List<PurchaseOrderReceiveLineDTO> lines, String receiptNumber,
+                              Map<Long, BigDecimal> stockDeltas, List<StockMovement> movementsToSave) {
+        if (po.getOrderStatus() == OrderStatus.CANCELLED) {
+            throw new InvalidOrderStateException("Cannot receive a cancelled PO " + po.getId());
         }
 
         // Map existing lines
         Map<Long, PurchaseOrderLine> existingLines = po.getPurchaseOrderLineList()
                 .stream().collect(Collectors.toMap(PurchaseOrderLine::getId, l -> l));
 
-        List<StockMovement> movementsToSave = new ArrayList<>();
-
-        for (PurchaseOrderReceiveLineDTO lineDto : request.lines()) {
+        for (PurchaseOrderReceiveLineDTO lineDto : lines) {
             PurchaseOrderLine line = existingLines.get(lineDto.lineId());
             if (line == null) {
-                throw new PurchaseOrderNotFoundException("Line " + lineDto.lineId() + " not part of PO " + poId);
+                throw new PurchaseOrderNotFoundException("Line " + lineDto.lineId() + " not part of PO " + po.getId());
             }
 
             BigDecimal alreadyReceived = line.getReceivedQuantity() == null ? BigDecimal.ZERO : line.getReceivedQuantity();
@@ -162,11 +250,9 @@ public class PurchaseOrderService {
                 continue;
             }
 
-            // Update product quantity (optimistic locking protects concurrent updates)
+            // Product quantity is applied by the caller as an atomic delta, per product
             Product product = line.getProduct();
-            BigDecimal currentQty = product.getQuantity() == null ? BigDecimal.ZERO : product.getQuantity();
-            product.setQuantity(currentQty.add(toApply));
-            productRepository.save(product); // may throw OptimisticLockingFailureException on conflict
+            stockDeltas.merge(product.getId(), toApply, BigDecimal::add);
 
             // Create stock movement
             StockMovement movement = StockMovement.builder()
@@ -175,7 +261,7 @@ public class PurchaseOrderService {
                     .quantity(toApply)
                     .referenceType("PO")
                     .referenceId(po.getId())
-                    .note("Received for PO line " + line.getId() + (request.receiptNumber() != null ? " (receipt " + request.receiptNumber() + ")" : ""))
+                    .note("Received for PO line " + line.getId() + (receiptNumber != null ? " (receipt " + receiptNumber + ")" : ""))
                     .build();
             movementsToSave.add(movement);
 
@@ -190,10 +276,6 @@ public class PurchaseOrderService {
             // subtotal and PO totals remain unchanged for receive operation
         }
 
-        if (!movementsToSave.isEmpty()) {
-            stockMovementRepository.saveAll(movementsToSave);
-        }
-
         // Update PO status based on line statuses
         boolean allReceived = po.getPurchaseOrderLineList().stream()
                 .allMatch(l -> l.getLineStatus() == LineStatus.RECEIVED);
@@ -205,19 +287,61 @@ public class PurchaseOrderService {
         } else if (anyReceived) {
             po.setOrderStatus(OrderStatus.PARTIALLY_RECEIVED);
         }
+    }
 
-        PurchaseOrder saved = purchaseOrderRepository.save(po);
-        return mapToResponseDTO(saved);
+    /**
+     * Read path: orders (with their supplier already fetched) plus one query for all their lines, so a page
+     * costs the same two queries however many orders and lines it has, instead of touching lazy lines and
+     * products order by order.
+     */
+    private List<PurchaseOrderResponseDTO> toResponseDTOs(List<PurchaseOrder> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<PurchaseOrderLineResponseDTO>> linesByOrder = new HashMap<>();
+        for (PurchaseOrderLineRepository.LineView line : purchaseOrderLineRepository.findViewsByPurchaseOrderIds(
+                orders.stream().map(PurchaseOrder::getId).toList())) {
+            linesByOrder.computeIfAbsent(line.getPurchaseOrderId(), k -> new ArrayList<>())
+                    .add(new PurchaseOrderLineResponseDTO(
+                            line.getId(),
+                            line.getProductId(),
+                            line.getSku(),
+                            line.getProductName(),
+                            line.getQuantity(),
+                            line.getUnitPrice(),
+                            line.getSubtotal(),
+                            line.getReceivedQuantity(),
+                            line.getLineStatus()));
+        }
+        return orders.stream()
+                .map(po -> new PurchaseOrderResponseDTO(
+                        po.getId(),
+                        po.getOrderNumber(),
+                        po.getSupplier().getId(),
+                        po.getSupplier().getName(),
+                        po.getOrderDate(),
+                        po.getOrderStatus().name(),
+                        po.getTotalAmount(),
+                        linesByOrder.getOrDefault(po.getId(), List.of())))
+                .toList();
+    }
+
+    // a receipt taken from the asynchronous receive queue
+    public record QueuedReceipt(Long receiptId, Long purchaseOrderId, String receiptNumber,
+                                List<PurchaseOrderReceiveLineDTO> lines) {
     }
 
-    // Mapper helper (keeps previous response shape)
-    private PurchaseOrderResponseDTO mapToResponseDTO(PurchaseOrder po) {
+    // Mapper for an order whose lines and products are already in memory
+    public PurchaseOrderResponseDTO mapToResponseDTO(PurchaseOrder po) {
         List<PurchaseOrderLineResponseDTO> lineDTOs = po.getPurchaseOrderLineList().stream()
                 .map(line -> new PurchaseOrderLineResponseDTO(
                         line.getId(),
                         line.getProduct().getId(),
+                        line.getProduct().getSku(),
+                        line.getProduct().getName(),
                         line.getQuantity(),
                         line.getUnitPrice(),
+                        line.getSubtotal(),
                         line.getReceivedQuantity(),
                         line.getLineStatus().name()
                 ))
@@ -227,8 +351,10 @@ public class PurchaseOrderService {
                 po.getId(),
                 po.getOrderNumber(),
                 po.getSupplier().getId(),
+                po.getSupplier().getName(),
                 po.getOrderDate(),
                 po.getOrderStatus().name(),
+                po.getTotalAmount(),
                 lineDTOs
         );
     }
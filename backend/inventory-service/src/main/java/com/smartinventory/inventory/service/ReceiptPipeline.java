@@ -0,0 +1,303 @@
+package com.smartinventory.inventory.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartinventory.inventory.dto.PurchaseOrderReceiveLineDTO;
+import com.smartinventory.inventory.dto.PurchaseOrderReceiveRequestDTO;
+import com.smartinventory.inventory.dto.ReceiptStatusResponseDTO;
+import com.smartinventory.inventory.entity.ReceiptRequest;
+import com.smartinventory.inventory.entity.ReceiptStatus;
+import com.smartinventory.inventory.exception.InvalidOrderStateException;
+import com.smartinventory.inventory.exception.ProductNotFoundException;
+import com.smartinventory.inventory.exception.PurchaseOrderNotFoundException;
+import com.smartinventory.inventory.exception.ReceiptBacklogFullException;
+import com.smartinventory.inventory.exception.ReceiptNotFoundException;
+import com.smartinventory.inventory.repository.PurchaseOrderRepository;
+import com.smartinventory.inventory.repository.ReceiptRequestRepository;
+import com.smartinventory.inventory.service.PurchaseOrderService.QueuedReceipt;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Asynchronous receiving: {@code POST /purchase-orders/{id}/receipts}.
+ * <p>
+ * Contract: a receipt is acknowledged (202) only after it is stored in {@code receipt_request} as PENDING,
+ * so an acknowledged receipt is never lost; it becomes APPLIED or FAILED in the same transaction that
+ * applies it, and its status can be polled. A receipt applies at most once.
+ * <p>
+ * Accepted receipts go through a bounded in-process queue to a single writer thread. The writer takes what
+ * has arrived (waiting up to {@code linger-ms} for a batch to build up), merges the batch like a receiving
+ * session (one quantity update per product in id order, one batch of movements, the usual line-status
+ * logic of {@link PurchaseOrderService}) and commits it in one transaction. When the queue is full, new
+ * receipts are rejected with 503 before anything is stored.
+ * <p>
+ * PENDING rows left by a restart are applied when the writer starts, and rows still PENDING after
+ * {@code sweep-interval-ms} (a batch that failed on a lock timeout or a lost connection, or a receipt queued on
+ * an instance that went away) are swept up by the writer every {@code sweep-interval-ms}. Every instance runs
+ * a writer: a batch first claims its receipts with a conditional PENDING → APPLYING update in its own
+ * transaction, so a receipt another writer already applied, or is applying, is skipped. Only a receipt the
+ * order rejects becomes FAILED; anything else rolls back and leaves it PENDING.
+ */
+@Slf4j
+@Service
+public class ReceiptPipeline {
+    private static final int MAX_MESSAGE = 500;
+
+    private final PurchaseOrderService purchaseOrderService;
+    private final PurchaseOrderRepository purchaseOrderRepository;
+    private final ReceiptRequestRepository receiptRequestRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int maxBatch;
+    private final long lingerMs;
+    private final long sweepIntervalMs;
+
+    private final BlockingQueue<QueuedReceipt> queue;
+    // one permit per queued receipt, taken before the receipt is stored and released once the writer is done
+    private final Semaphore capacity;
+    private volatile boolean running;
+    private Thread writer;
+
+    public ReceiptPipeline(PurchaseOrderService purchaseOrderService,
+                           PurchaseOrderRepository purchaseOrderRepository,
+                           ReceiptRequestRepository receiptRequestRepository,
+                           TransactionTemplate transactionTemplate,
+                           ObjectMapper objectMapper,
+                           @Value("${inventory.receipt-queue.capacity:10000}") int capacity,
+                           @Value("${inventory.receipt-queue.max-batch:500}") int maxBatch,
+                           @Value("${inventory.receipt-queue.linger-ms:50}") long lingerMs,
+                           @Value("${inventory.receipt-queue.sweep-interval-ms:60000}") long sweepIntervalMs) {
+        this.purchaseOrderService = purchaseOrderService;
+        this.purchaseOrderRepository = purchaseOrderRepository;
+        this.receiptRequestRepository = receiptRequestRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.maxBatch = maxBatch;
+        this.lingerMs = lingerMs;
+        this.sweepIntervalMs = sweepIntervalMs;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.capacity = new Semaphore(capacity);
+    }
+
+    public ReceiptStatusResponseDTO submit(Long poId, PurchaseOrderReceiveRequestDTO request) {
+        if (!capacity.tryAcquire()) {
+            throw new ReceiptBacklogFullException("Receiving backlog is full, please retry shortly");
+        }
+        try {
+            if (!purchaseOrderRepository.existsById(poId)) {
+                throw new PurchaseOrderNotFoundException("PO not found: " + poId);
+            }
+            ReceiptRequest saved = receiptRequestRepository.save(ReceiptRequest.builder()
+                    .purchaseOrderId(poId)
+                    .receiptNumber(request.receiptNumber())
+                    .lines(writeLines(request.lines()))
+                    .status(ReceiptStatus.PENDING)
+                    .acceptedAt(LocalDateTime.now())
+                    .build());
+            queue.add(new QueuedReceipt(saved.getId(), poId, request.receiptNumber(), request.lines()));
+            return toStatusDTO(saved);
+        } catch (RuntimeException ex) {
+            capacity.release();
+            throw ex;
+        }
+    }
+
+    public ReceiptStatusResponseDTO getStatus(Long receiptId) {
+        return receiptRequestRepository.findById(receiptId)
+                .map(this::toStatusDTO)
+                .orElseThrow(() -> new ReceiptNotFoundException("Receipt not found: " + receiptId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        writer = new Thread(this::run, "receipt-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // receipts still queued stay PENDING in the table and are applied on the next start or by another instance
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void run() {
+        // left by a previous run, or still queued on another instance, in which case the claim skips it there
+        sweepPending(LocalDateTime.now());
+        long nextSweep = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sweepIntervalMs);
+        List<QueuedReceipt> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                if (System.nanoTime() - nextSweep >= 0) {
+                    // younger receipts are most likely still in some writer's queue
+                    sweepPending(LocalDateTime.now().minus(sweepIntervalMs, ChronoUnit.MILLIS));
+                    nextSweep = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sweepIntervalMs);
+                }
+                QueuedReceipt first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // give scans arriving right behind the first one the chance to share its transaction
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < maxBatch) {
+                    queue.drainTo(batch, maxBatch - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatch || remaining <= 0) {
+                        break;
+                    }
+                    QueuedReceipt next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                apply(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                // the receipts stay PENDING and are picked up by a later sweep
+                log.error("Receipt writer failed on a batch of {} receipts", batch.size(), ex);
+            } finally {
+                capacity.release(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    private void sweepPending(LocalDateTime acceptedBefore) {
+        long lastId = 0;
+        int swept = 0;
+        try {
+            List<ReceiptRequest> chunk;
+            while (running && !(chunk = receiptRequestRepository.findByStatusAndAcceptedAtBeforeAndIdGreaterThanOrderByIdAsc(
+                    ReceiptStatus.PENDING, acceptedBefore, lastId, Limit.of(maxBatch))).isEmpty()) {
+                apply(chunk.stream()
+                        .map(r -> new QueuedReceipt(r.getId(), r.getPurchaseOrderId(), r.getReceiptNumber(), readLines(r.getLines())))
+                        .toList());
+                swept += chunk.size();
+                lastId = chunk.get(chunk.size() - 1).getId();
+            }
+        } catch (RuntimeException ex) {
+            log.error("Sweeping pending receipts failed; retrying in {} ms", sweepIntervalMs, ex);
+        }
+        if (swept > 0) {
+            log.info("Swept {} pending receipts accepted before {}", swept, acceptedBefore);
+        }
+    }
+
+    private void apply(List<QueuedReceipt> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> applyPending(batch));
+        } catch (RuntimeException ex) {
+            if (batch.size() == 1) {
+                if (isRejection(ex)) {
+                    markFailed(batch.get(0), ex);
+                } else {
+                    log.warn("Receipt {} for PO {} could not be applied now; it stays PENDING",
+                            batch.get(0).receiptId(), batch.get(0).purchaseOrderId(), ex);
+                }
+                return;
+            }
+            // something the up-front checks don't cover (e.g. a product deleted meanwhile); isolate it
+            log.warn("Receipt batch of {} failed, applying one by one", batch.size(), ex);
+            for (QueuedReceipt receipt : batch) {
+                apply(List.of(receipt));
+            }
+        }
+    }
+
+    // inside the batch transaction: claim, stock, lines, orders and receipt statuses commit together
+    private void applyPending(List<QueuedReceipt> batch) {
+        List<Long> ids = batch.stream().map(QueuedReceipt::receiptId).toList();
+        if (receiptRequestRepository.updateStatus(ids, ReceiptStatus.PENDING, ReceiptStatus.APPLYING) == 0) {
+            return;
+        }
+        // only the rows this transaction moved to APPLYING are ours: a receipt both swept from the table and
+        // still queued, or taken by another instance's writer, is skipped by whoever comes second
+        Map<Long, ReceiptRequest> rows = receiptRequestRepository.findAllById(ids).stream()
+                .filter(row -> row.getStatus() == ReceiptStatus.APPLYING)
+                .collect(Collectors.toMap(ReceiptRequest::getId, Function.identity()));
+        List<QueuedReceipt> pending = batch.stream().filter(r -> rows.containsKey(r.receiptId())).toList();
+        Map<Long, String> rejected = purchaseOrderService.receiveQueued(pending);
+        LocalDateTime now = LocalDateTime.now();
+        for (QueuedReceipt receipt : pending) {
+            ReceiptRequest row = rows.get(receipt.receiptId());
+            String problem = rejected.get(receipt.receiptId());
+            row.setStatus(problem == null ? ReceiptStatus.APPLIED : ReceiptStatus.FAILED);
+            row.setMessage(truncate(problem));
+            row.setProcessedAt(now);
+        }
+    }
+
+    // the order or a product can't take the receipt; retrying won't help. Lock timeouts, lost connections
+    // and the like are not rejections.
+    private static boolean isRejection(RuntimeException ex) {
+        return ex instanceof PurchaseOrderNotFoundException
+                || ex instanceof InvalidOrderStateException
+                || ex instanceof ProductNotFoundException;
+    }
+
+    private void markFailed(QueuedReceipt receipt, RuntimeException cause) {
+        log.warn("Receipt {} for PO {} failed", receipt.receiptId(), receipt.purchaseOrderId(), cause);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (receiptRequestRepository.updateStatus(List.of(receipt.receiptId()), ReceiptStatus.PENDING, ReceiptStatus.FAILED) > 0) {
+                    receiptRequestRepository.findById(receipt.receiptId()).ifPresent(row -> {
+                        row.setMessage(truncate(cause.getMessage()));
+                        row.setProcessedAt(LocalDateTime.now());
+                    });
+                }
+            });
+        } catch (RuntimeException ex) {
+            log.error("Could not record the failure of receipt {}; it stays PENDING", receipt.receiptId(), ex);
+        }
+    }
+
+    private ReceiptStatusResponseDTO toStatusDTO(ReceiptRequest row) {
+        return new ReceiptStatusResponseDTO(row.getId(), row.getPurchaseOrderId(), row.getReceiptNumber(),
+                row.getStatus().name(), row.getMessage(), row.getAcceptedAt(), row.getProcessedAt());
+    }
+
+    private String writeLines(List<PurchaseOrderReceiveLineDTO> lines) {
+        try {
+            return objectMapper.writeValueAsString(lines);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise receipt lines", e);
+        }
+    }
+
+    private List<PurchaseOrderReceiveLineDTO> readLines(String json) {
+        try {
+            return objectMapper.readValue(json, new TypeReference<>() {});
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored receipt lines", e);
+        }
+    }
+
+    private static String truncate(String message) {
+        return message == null || message.length() <= MAX_MESSAGE ? message : message.substring(0, MAX_MESSAGE);
+    }
+}
@@ -0,0 +1,155 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.entity.RevokedToken;
+import com.smartinventory.inventory.repository.RevokedTokenRepository;
+import com.smartinventory.inventory.util.BloomFilter;
+import com.smartinventory.inventory.util.JwtUtils;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Revoked login sessions.
+ * <p>
+ * Every token issued from one login, through all of its refreshes, carries the same session id
+ * ({@link JwtUtils#SESSION_CLAIM}); logout revokes the session, so the refresh tokens handed out before the one
+ * presented and the access tokens still in circulation stop working too. Revocations are stored in
+ * {@code revoked_token} and mirrored in an in-memory {@link BloomFilter}.
+ * <p>
+ * Refreshes and access tokens are both checked with {@link #mightBeRevoked}: "not revoked" is answered by the
+ * filter without I/O and a possible hit is confirmed against the table. A revocation goes into the revoking
+ * instance's filter at once; each instance adds revocations made elsewhere every {@code sync-interval-ms},
+ * which bounds how long another instance keeps accepting tokens of a revoked session. Rows are deleted once
+ * every token of their session has expired, and the filter is then rebuilt from the remaining rows.
+ */
+@Slf4j
+@Service
+public class RefreshTokenRevocationService {
+    // revoked_at is stamped by the revoking instance before its commit; look back this far to cover the
+    // commit delay and clock differences between instances. Re-adding a digest is harmless.
+    private static final long SYNC_OVERLAP_SECONDS = 60;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final JwtUtils jwtUtils;
+    private final TransactionTemplate transactionTemplate;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+
+    // replaced wholesale on rebuild; null until the first build, when every check goes to the table
+    private volatile BloomFilter filter;
+    private volatile LocalDateTime syncedUpTo;
+
+    public RefreshTokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                         JwtUtils jwtUtils,
+                                         TransactionTemplate transactionTemplate,
+                                         @Value("${inventory.token-revocation.expected-revocations:100000}") long expectedRevocations,
+                                         @Value("${inventory.token-revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.jwtUtils = jwtUtils;
+        this.transactionTemplate = transactionTemplate;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Revokes the session of a valid refresh token. Expired or invalid tokens are rejected by the parser;
+     * tokens without a session are left alone, as nothing accepts them.
+     */
+    public void revoke(String token) {
+        Claims claims = jwtUtils.extractClaim(token);
+        String sessionId = claims.get(JwtUtils.SESSION_CLAIM, String.class);
+        if (sessionId == null) {
+            return;
+        }
+        byte[] digest = JwtUtils.sha256(sessionId);
+        LocalDateTime now = LocalDateTime.now();
+        RevokedToken revoked = RevokedToken.builder()
+                .sessionDigest(encode(digest))
+                .username(claims.getSubject())
+                // the session may hold a refresh token newer than the one presented; none outlives this
+                .expiresAt(now.plus(jwtUtils.getRefreshTokenValidityMs(), ChronoUnit.MILLIS))
+                .revokedAt(now)
+                .build();
+        // serialised with rebuild so a revocation can't fall between its query and the swap
+        synchronized (this) {
+            revokedTokenRepository.save(revoked);
+            BloomFilter current = filter;
+            if (current != null) {
+                current.put(digest);
+            }
+        }
+    }
+
+    /**
+     * Whether the session is revoked, as far as this instance's filter knows: a revocation made on another
+     * instance shows up here within {@code sync-interval-ms}. For refreshes and for access tokens on every request.
+     */
+    public boolean mightBeRevoked(String sessionId) {
+        byte[] digest = JwtUtils.sha256(sessionId);
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(digest)) {
+            return false;
+        }
+        return revokedTokenRepository.existsById(encode(digest));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        int loaded;
+        synchronized (this) {
+            LocalDateTime now = LocalDateTime.now();
+            List<String> digests = revokedTokenRepository.findDigestsExpiringAfter(now);
+            // keep the false-positive rate when revocations outgrow the configured size
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, 2L * digests.size()), falsePositiveRate);
+            for (String digest : digests) {
+                rebuilt.put(Base64.getDecoder().decode(digest));
+            }
+            filter = rebuilt;
+            syncedUpTo = now;
+            loaded = digests.size();
+        }
+        log.info("Refresh token revocation filter built with {} entries in {} ms",
+                loaded, System.currentTimeMillis() - started);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.token-revocation.sync-interval-ms:5000}",
+            initialDelayString = "${inventory.token-revocation.sync-interval-ms:5000}")
+    public void syncRevocations() {
+        synchronized (this) {
+            BloomFilter current = filter;
+            if (current == null) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            for (String digest : revokedTokenRepository.findDigestsRevokedAfter(syncedUpTo.minusSeconds(SYNC_OVERLAP_SECONDS))) {
+                current.put(Base64.getDecoder().decode(digest));
+            }
+            syncedUpTo = now;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.token-revocation.cleanup-interval-ms:3600000}",
+            initialDelayString = "${inventory.token-revocation.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        Integer deleted = transactionTemplate.execute(status -> revokedTokenRepository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} expired refresh token revocations", deleted);
+        }
+        rebuild();
+    }
+
+    private static String encode(byte[] digest) {
+        return Base64.getEncoder().encodeToString(digest);
+    }
+}
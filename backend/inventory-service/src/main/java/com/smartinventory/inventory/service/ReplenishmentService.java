@@ -0,0 +1,295 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.dto.*;
+import com.smartinventory.inventory.entity.MovementType;
+import com.smartinventory.inventory.entity.OrderStatus;
+import com.smartinventory.inventory.exception.DuplicateReplenishmentOrderException;
+import com.smartinventory.inventory.exception.ReplenishmentProposalNotFoundException;
+import com.smartinventory.inventory.repository.ProductRepository;
+import com.smartinventory.inventory.repository.PurchaseOrderLineRepository;
+import com.smartinventory.inventory.repository.StockDailyRollupRepository;
+import com.smartinventory.inventory.repository.StockMovementRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Proposes purchase orders from demand velocity and supplier lead times.
+ * <p>
+ * Daily demand is the average OUT quantity over the last {@code window-days} whole days, read from
+ * stock_daily_rollup and, for days not rolled up yet, from stock_movement. A product is due for
+ * replenishment once its inventory position (on hand plus still to be received on open orders) is at or
+ * below its reorder point, {@code dailyDemand * (leadTimeDays + safety-stock-days)}; it is then ordered up
+ * to the reorder point plus {@code cover-days} of demand. Proposals are grouped by preferred supplier, each
+ * one the lines of a draft purchase order.
+ * <p>
+ * A run splits the product id span in halves on a fork-join pool until a piece is at most
+ * {@code range-size} ids wide. Each piece is planned with four range queries, so a run costs a few queries
+ * per range-size products regardless of how many lines it proposes. The latest run is kept in memory, on each
+ * instance that ran it; the orders created from a day's runs are recorded with that day, and the database
+ * refuses a second one for the same supplier, whichever instance it comes through.
+ */
+@Slf4j
+@Service
+public class ReplenishmentService {
+    private static final Set<OrderStatus> OPEN_ORDERS =
+            EnumSet.of(OrderStatus.DRAFT, OrderStatus.CONFIRMED, OrderStatus.PARTIALLY_RECEIVED);
+
+    private final ProductRepository productRepository;
+    private final StockDailyRollupRepository rollupRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final PurchaseOrderLineRepository purchaseOrderLineRepository;
+    private final PurchaseOrderService purchaseOrderService;
+    private final int windowDays;
+    private final int safetyStockDays;
+    private final int coverDays;
+    private final int rangeSize;
+    private final ForkJoinPool pool;
+
+    private volatile Run latest;
+
+    public ReplenishmentService(ProductRepository productRepository,
+                                StockDailyRollupRepository rollupRepository,
+                                StockMovementRepository stockMovementRepository,
+                                PurchaseOrderLineRepository purchaseOrderLineRepository,
+                                PurchaseOrderService purchaseOrderService,
+                                @Value("${inventory.replenishment.window-days:28}") int windowDays,
+                                @Value("${inventory.replenishment.safety-stock-days:7}") int safetyStockDays,
+                                @Value("${inventory.replenishment.cover-days:14}") int coverDays,
+                                @Value("${inventory.replenishment.range-size:10000}") int rangeSize,
+                                @Value("${inventory.replenishment.parallelism:4}") int parallelism) {
+        this.productRepository = productRepository;
+        this.rollupRepository = rollupRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.purchaseOrderLineRepository = purchaseOrderLineRepository;
+        this.purchaseOrderService = purchaseOrderService;
+        this.windowDays = windowDays;
+        this.safetyStockDays = safetyStockDays;
+        this.coverDays = coverDays;
+        this.rangeSize = rangeSize;
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("replenishment-" + counter.incrementAndGet());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Plans the whole catalog and replaces the latest proposals. Runs one at a time.
+     */
+    @Scheduled(cron = "${inventory.replenishment.cron:0 0 4 * * *}")
+    public synchronized ReplenishmentRunResponseDTO run() {
+        long started = System.currentTimeMillis();
+        LocalDateTime generatedAt = LocalDateTime.now();
+        DemandWindow window = demandWindow(generatedAt.toLocalDate());
+        ProductRepository.IdRange ids = productRepository.findIdRange();
+        Plan plan = ids == null || ids.getMinId() == null
+                ? new Plan()
+                : pool.invoke(new PlanTask(ids.getMinId() - 1, ids.getMaxId(), window));
+
+        Map<Long, List<ReplenishmentLineDTO>> proposals = new ConcurrentSkipListMap<>();
+        plan.bySupplier.forEach((supplierId, lines) -> {
+            lines.sort(Comparator.comparing(ReplenishmentLineDTO::productId));
+            proposals.put(supplierId, List.copyOf(lines));
+        });
+        latest = new Run(generatedAt, plan.scanned, System.currentTimeMillis() - started, proposals);
+        log.info("Replenishment planned {} products into {} proposal(s) in {} ms",
+                plan.scanned, proposals.size(), latest.durationMs());
+        return toResponseDTO(latest);
+    }
+
+    public ReplenishmentRunResponseDTO getLatestRun() {
+        return toResponseDTO(latestRun());
+    }
+
+    public List<ReplenishmentLineDTO> getProposal(long supplierId) {
+        List<ReplenishmentLineDTO> lines = latestRun().proposals().get(supplierId);
+        if (lines == null) {
+            throw new ReplenishmentProposalNotFoundException("No replenishment proposal for supplier " + supplierId);
+        }
+        return lines;
+    }
+
+    public PurchaseOrderRequestDTO toPurchaseOrderRequest(long supplierId) {
+        List<PurchaseOrderLineRequestDTO> lines = getProposal(supplierId).stream()
+                .map(line -> new PurchaseOrderLineRequestDTO(line.productId(), line.quantity()))
+                .toList();
+        return new PurchaseOrderRequestDTO(supplierId, lines);
+    }
+
+    /**
+     * Turns a supplier's proposal into a draft purchase order and takes it off the latest run. Its quantities
+     * then count as on order in the next run. Fails if the supplier already got an order from a run of the
+     * same day, here or on another instance.
+     */
+    public PurchaseOrderResponseDTO createPurchaseOrder(long supplierId) {
+        Run run = latestRun();
+        PurchaseOrderRequestDTO request = toPurchaseOrderRequest(supplierId);
+        // removed first so two concurrent calls can't both order it
+        List<ReplenishmentLineDTO> lines = run.proposals().remove(supplierId);
+        if (lines == null) {
+            throw new ReplenishmentProposalNotFoundException("No replenishment proposal for supplier " + supplierId);
+        }
+        try {
+            return purchaseOrderService.createPurchaseOrder(request, run.generatedAt().toLocalDate());
+        } catch (DataIntegrityViolationException ex) {
+            // uk_po_supplier_replenishment: ordered already, so the proposal stays off the run
+            throw new DuplicateReplenishmentOrderException("Supplier " + supplierId
+                    + " already has a purchase order from the replenishment run of " + run.generatedAt().toLocalDate());
+        } catch (RuntimeException ex) {
+            run.proposals().putIfAbsent(supplierId, lines);
+            throw ex;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private Run latestRun() {
+        Run run = latest;
+        if (run == null) {
+            throw new ReplenishmentProposalNotFoundException("Replenishment has not run yet");
+        }
+        return run;
+    }
+
+    // the last windowDays whole days before today: rolled-up days from the rollups, the rest from stock_movement
+    private DemandWindow demandWindow(LocalDate today) {
+        LocalDate first = today.minusDays(windowDays);
+        LocalDate lastRolledUp = rollupRepository.findLastRollupDate();
+        if (lastRolledUp == null || lastRolledUp.isBefore(first)) {
+            return new DemandWindow(null, null, first.atStartOfDay(), today.atStartOfDay());
+        }
+        LocalDate rolledTo = lastRolledUp.isBefore(today) ? lastRolledUp : today.minusDays(1);
+        return new DemandWindow(first, rolledTo, rolledTo.plusDays(1).atStartOfDay(), today.atStartOfDay());
+    }
+
+    private Plan plan(long fromId, long toId, DemandWindow window) {
+        Plan plan = new Plan();
+        List<ProductRepository.ReplenishmentView> products = productRepository.findReplenishmentRange(fromId, toId);
+        if (products.isEmpty()) {
+            return plan;
+        }
+        Map<Long, BigDecimal> demand = new HashMap<>();
+        if (window.rolledFrom() != null) {
+            addTo(demand, rollupRepository.sumOutByProductRange(fromId, toId, window.rolledFrom(), window.rolledTo()));
+        }
+        if (window.rawFrom().isBefore(window.rawTo())) {
+            addTo(demand, stockMovementRepository.sumByProductRange(MovementType.OUT, fromId, toId,
+                    window.rawFrom(), window.rawTo()));
+        }
+        Map<Long, BigDecimal> onOrder = new HashMap<>();
+        addTo(onOrder, purchaseOrderLineRepository.sumOpenQuantityByProductRange(OPEN_ORDERS, fromId, toId));
+
+        BigDecimal days = BigDecimal.valueOf(windowDays);
+        Long previous = null;
+        for (ProductRepository.ReplenishmentView product : products) {
+            // several preferred suppliers: the first row, lowest supplier id, wins
+            if (product.getId().equals(previous)) {
+                continue;
+            }
+            previous = product.getId();
+            plan.scanned++;
+            BigDecimal dailyDemand = demand.getOrDefault(product.getId(), BigDecimal.ZERO)
+                    .divide(days, 4, RoundingMode.HALF_UP);
+            if (dailyDemand.signum() <= 0) {
+                continue;
+            }
+            int leadTimeDays = product.getLeadTimeDays() == null ? 0 : product.getLeadTimeDays();
+            BigDecimal onHand = product.getQuantity() == null ? BigDecimal.ZERO : product.getQuantity();
+            BigDecimal ordered = onOrder.getOrDefault(product.getId(), BigDecimal.ZERO);
+            BigDecimal position = onHand.add(ordered);
+            BigDecimal reorderPoint = dailyDemand.multiply(BigDecimal.valueOf(leadTimeDays + safetyStockDays));
+            if (position.compareTo(reorderPoint) > 0) {
+                continue;
+            }
+            BigDecimal orderUpTo = reorderPoint.add(dailyDemand.multiply(BigDecimal.valueOf(coverDays)));
+            // whole units, and at least one, as purchase order lines require
+            BigDecimal quantity = orderUpTo.subtract(position).setScale(0, RoundingMode.CEILING).max(BigDecimal.ONE);
+            plan.bySupplier.computeIfAbsent(product.getSupplierId(), k -> new ArrayList<>())
+                    .add(new ReplenishmentLineDTO(product.getId(), onHand, ordered, dailyDemand, leadTimeDays,
+                            reorderPoint.setScale(4, RoundingMode.HALF_UP), quantity, product.getSupplierPrice()));
+        }
+        return plan;
+    }
+
+    private static void addTo(Map<Long, BigDecimal> totals, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            if (row[1] != null) {
+                totals.merge((Long) row[0], (BigDecimal) row[1], BigDecimal::add);
+            }
+        }
+    }
+
+    private static ReplenishmentRunResponseDTO toResponseDTO(Run run) {
+        List<ReplenishmentProposalDTO> proposals = run.proposals().entrySet().stream()
+                .map(e -> new ReplenishmentProposalDTO(e.getKey(), e.getValue().size(),
+                        e.getValue().stream()
+                                .map(line -> line.unitPrice().multiply(line.quantity()))
+                                .reduce(BigDecimal.ZERO, BigDecimal::add)))
+                .toList();
+        return new ReplenishmentRunResponseDTO(run.generatedAt(), run.productsScanned(), run.durationMs(), proposals);
+    }
+
+    // (fromId, toId], halved until it fits one set of range queries
+    private class PlanTask extends RecursiveTask<Plan> {
+        private final long fromId;
+        private final long toId;
+        private final DemandWindow window;
+
+        PlanTask(long fromId, long toId, DemandWindow window) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.window = window;
+        }
+
+        @Override
+        protected Plan compute() {
+            if (toId - fromId <= rangeSize) {
+                return plan(fromId, toId, window);
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            PlanTask lower = new PlanTask(fromId, middle, window);
+            lower.fork();
+            Plan upper = new PlanTask(middle, toId, window).compute();
+            return lower.join().merge(upper);
+        }
+    }
+
+    // demand comes from rollups for [rolledFrom, rolledTo] (both null if none apply) and raw movements in [rawFrom, rawTo)
+    private record DemandWindow(LocalDate rolledFrom, LocalDate rolledTo, LocalDateTime rawFrom, LocalDateTime rawTo) {
+    }
+
+    private static final class Plan {
+        final Map<Long, List<ReplenishmentLineDTO>> bySupplier = new HashMap<>();
+        long scanned;
+
+        Plan merge(Plan other) {
+            other.bySupplier.forEach((supplierId, lines) ->
+                    bySupplier.computeIfAbsent(supplierId, k -> new ArrayList<>()).addAll(lines));
+            scanned += other.scanned;
+            return this;
+        }
+    }
+
+    private record Run(LocalDateTime generatedAt, long productsScanned, long durationMs,
+                       Map<Long, List<ReplenishmentLineDTO>> proposals) {
+    }
+}
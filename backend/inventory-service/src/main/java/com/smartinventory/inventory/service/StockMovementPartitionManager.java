@@ -0,0 +1,160 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.repository.StockDailyRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the monthly partitions of stock_movement and archives old ones.
+ * <p>
+ * Only active on PostgreSQL once stock_movement has been converted with
+ * {@code db/stock_movement_partitioning.sql}; otherwise it does nothing. Partitions are created
+ * {@code months-ahead} months in advance. A partition whose range ended more than {@code retention-months}
+ * ago, and whose days have all been rolled up into stock_daily_rollup, is detached and moved into the
+ * {@code archive-schema} schema. Movement queries over that period keep working from the rollups, and the
+ * archived table can be dumped and dropped whenever convenient.
+ */
+@Slf4j
+@Component
+public class StockMovementPartitionManager {
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+    private static final String JOB = "stock-movement-partitions";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StockDailyRollupRepository rollupRepository;
+    private final JobLockService jobLockService;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final String archiveSchema;
+
+    public StockMovementPartitionManager(JdbcTemplate jdbcTemplate,
+                                         TransactionTemplate transactionTemplate,
+                                         StockDailyRollupRepository rollupRepository,
+                                         JobLockService jobLockService,
+                                         @Value("${inventory.stock-movement.months-ahead:2}") int monthsAhead,
+                                         @Value("${inventory.stock-movement.retention-months:24}") int retentionMonths,
+                                         @Value("${inventory.stock-movement.archive-schema:stock_archive}") String archiveSchema) {
+        if (!IDENTIFIER.matcher(archiveSchema).matches()) {
+            throw new IllegalArgumentException("inventory.stock-movement.archive-schema is not a plain identifier: " + archiveSchema);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rollupRepository = rollupRepository;
+        this.jobLockService = jobLockService;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.archiveSchema = archiveSchema;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!isPartitioned()) {
+            log.info("stock_movement is not partitioned; partition maintenance and archiving are off "
+                    + "(see db/stock_movement_partitioning.sql)");
+            return;
+        }
+        maintain();
+    }
+
+    // on one instance at a time, so two instances don't race to create or detach the same partition
+    @Scheduled(cron = "${inventory.stock-movement.partition-cron:0 0 2 * * *}")
+    public void maintain() {
+        if (!isPartitioned()) {
+            return;
+        }
+        jobLockService.runExclusively(JOB, Duration.ofHours(1), () -> {
+            createUpcomingPartitions();
+            archiveExpiredPartitions();
+        });
+    }
+
+    private void createUpcomingPartitions() {
+        YearMonth month = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++, month = month.plusMonths(1)) {
+            String name = String.format("stock_movement_y%04dm%02d", month.getYear(), month.getMonthValue());
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF stock_movement"
+                        + " FOR VALUES FROM ('" + month.atDay(1).atStartOfDay() + "') TO ('"
+                        + month.plusMonths(1).atDay(1).atStartOfDay() + "')");
+            } catch (DataAccessException ex) {
+                // e.g. rows for that month already sitting in the default partition; needs a look by hand
+                log.warn("Could not create partition {}", name, ex);
+            }
+        }
+    }
+
+    private void archiveExpiredPartitions() {
+        LocalDate rolledUpThrough = rollupRepository.findLastRollupDate();
+        if (rolledUpThrough == null) {
+            return;
+        }
+        LocalDateTime cutoff = YearMonth.now().minusMonths(retentionMonths).atDay(1).atStartOfDay();
+        for (Partition partition : partitions()) {
+            LocalDateTime upper = partition.upperBound();
+            // the partition's last day must be rolled up, or its period could no longer be answered
+            if (upper == null || upper.isAfter(cutoff) || upper.minusNanos(1_000).toLocalDate().isAfter(rolledUpThrough)) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + archiveSchema);
+                    jdbcTemplate.execute("ALTER TABLE stock_movement DETACH PARTITION " + partition.name());
+                    jdbcTemplate.execute("ALTER TABLE " + partition.name() + " SET SCHEMA " + archiveSchema);
+                });
+                log.info("Archived stock_movement partition {} (movements before {}) into schema {}",
+                        partition.name(), upper, archiveSchema);
+            } catch (DataAccessException ex) {
+                log.warn("Could not archive partition {}", partition.name(), ex);
+            }
+        }
+    }
+
+    private List<Partition> partitions() {
+        return jdbcTemplate.query("""
+                        select c.relname, pg_get_expr(c.relpartbound, c.oid)
+                        from pg_inherits i
+                        join pg_class c on c.oid = i.inhrelid
+                        join pg_class p on p.oid = i.inhparent
+                        where p.relname = 'stock_movement' and p.relnamespace = current_schema()::regnamespace""",
+                (rs, rowNum) -> new Partition(rs.getString(1), upperBound(rs.getString(2))));
+    }
+
+    // null for the default partition
+    private static LocalDateTime upperBound(String bound) {
+        Matcher matcher = UPPER_BOUND.matcher(bound);
+        return matcher.find() ? LocalDateTime.parse(matcher.group(1).replace(' ', 'T')) : null;
+    }
+
+    private boolean isPartitioned() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return false;
+        }
+        Integer count = jdbcTemplate.queryForObject("""
+                select count(*) from pg_partitioned_table pt
+                join pg_class c on c.oid = pt.partrelid
+                where c.relname = 'stock_movement' and c.relnamespace = current_schema()::regnamespace""", Integer.class);
+        return count != null && count > 0;
+    }
+
+    private record Partition(String name, LocalDateTime upperBound) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.dto.CursorPageResponseDTO;
+import com.smartinventory.inventory.dto.StockMovementResponseDTO;
+import com.smartinventory.inventory.entity.MovementType;
+import com.smartinventory.inventory.entity.StockMovement;
+import com.smartinventory.inventory.exception.InvalidCursorException;
+import com.smartinventory.inventory.exception.ProductNotFoundException;
+import com.smartinventory.inventory.repository.ProductRepository;
+import com.smartinventory.inventory.repository.StockMovementRepository;
+import com.smartinventory.inventory.util.CursorCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * A product's stock movement history, newest first, in keyset pages over {@code (created_at, id)}.
+ * <p>
+ * Each page is one range scan of {@code idx_sm_product_created_id} starting at the cursor and reading
+ * {@code size + 1} rows, so the first page of a SKU with millions of movements costs the same as any other.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockMovementService {
+    private static final String CURSOR_SCOPE = "movements";
+    private static final LocalDateTime MIN_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final StockMovementRepository stockMovementRepository;
+    private final ProductRepository productRepository;
+
+    // movements in [from, to) of the given types (all when empty)
+    public CursorPageResponseDTO<StockMovementResponseDTO> getMovements(Long productId, LocalDateTime from, LocalDateTime to,
+                                                                        Collection<MovementType> types,
+                                                                        String cursor, int size) {
+        if (!productRepository.existsById(productId)) {
+            throw new ProductNotFoundException("Product with id " + productId + " not found");
+        }
+        int pageSize = CursorCodec.clampSize(size);
+        // the first page starts right before `to`: created_at < to, or = to with an id below every real id
+        LocalDateTime atOrBefore = to == null ? MAX_TIME : to;
+        long beforeId = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] keys = CursorCodec.decode(cursor, CURSOR_SCOPE, 3);
+            try {
+                if (Long.parseLong(keys[0]) != productId) {
+                    throw new InvalidCursorException("Cursor does not belong to this listing");
+                }
+                atOrBefore = LocalDateTime.parse(keys[1]);
+                beforeId = Long.parseLong(keys[2]);
+            } catch (NumberFormatException | DateTimeParseException ex) {
+                throw new InvalidCursorException("Malformed cursor");
+            }
+        }
+        Collection<MovementType> wanted = types == null || types.isEmpty() ? EnumSet.allOf(MovementType.class) : types;
+        List<StockMovement> rows = stockMovementRepository.findPageByProduct(productId, wanted,
+                from == null ? MIN_TIME : from, atOrBefore, beforeId, Limit.of(pageSize + 1));
+        return CursorPageResponseDTO.of(rows, pageSize, m -> mapToResponseDTO(m, productId),
+                m -> CursorCodec.encode(CURSOR_SCOPE, productId, m.getCreatedAt(), m.getId()));
+    }
+
+    private static StockMovementResponseDTO mapToResponseDTO(StockMovement movement, Long productId) {
+        return new StockMovementResponseDTO(movement.getId(), productId, movement.getMovementType().name(),
+                movement.getQuantity(), movement.getReferenceType(), movement.getReferenceId(),
+                movement.getCreatedAt(), movement.getNote());
+    }
+}
@@ -0,0 +1,289 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.dto.AvailabilityResponseDTO;
+import com.smartinventory.inventory.dto.ReservationRequestDTO;
+import com.smartinventory.inventory.dto.ReservationResponseDTO;
+import com.smartinventory.inventory.entity.MovementType;
+import com.smartinventory.inventory.entity.Product;
+import com.smartinventory.inventory.entity.StockMovement;
+import com.smartinventory.inventory.event.StockChangedEvent;
+import com.smartinventory.inventory.exception.InsufficientStockException;
+import com.smartinventory.inventory.exception.ProductNotFoundException;
+import com.smartinventory.inventory.exception.ReservationNotFoundException;
+import com.smartinventory.inventory.repository.ProductRepository;
+import com.smartinventory.inventory.repository.StockMovementRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory stock reservations (MovementType RESERVE / RELEASE).
+ * <p>
+ * On-hand and reserved quantities are kept per product as fixed-point longs (scale 4, like the
+ * quantity columns) in atomics, so a reserve is a compare-and-set on one product and products never
+ * contend with each other. Available-to-promise is {@code onHand - reserved}, read in O(1).
+ * Reservations expire after their TTL. RESERVE / RELEASE movements are queued and written to
+ * stock_movement in batches by a background flush instead of one transaction per call.
+ * <p>
+ * Reservations live in this instance's memory only; after a restart they are gone and the
+ * persisted movements remain as the audit trail.
+ */
+@Slf4j
+@Service
+public class StockReservationService {
+    private static final int SCALE = 4;
+
+    private final ProductRepository productRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long defaultTtlSeconds;
+    private final int flushBatchSize;
+
+    private final ConcurrentHashMap<Long, ProductStock> stock = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Reservation> reservations = new ConcurrentHashMap<>();
+    private final DelayQueue<Reservation> expiryQueue = new DelayQueue<>();
+    private final ConcurrentLinkedQueue<PendingMovement> pendingMovements = new ConcurrentLinkedQueue<>();
+
+    public StockReservationService(ProductRepository productRepository,
+                                   StockMovementRepository stockMovementRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${inventory.reservation.default-ttl-seconds:900}") long defaultTtlSeconds,
+                                   @Value("${inventory.reservation.flush-batch-size:500}") int flushBatchSize) {
+        this.productRepository = productRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.defaultTtlSeconds = defaultTtlSeconds;
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    public ReservationResponseDTO reserve(ReservationRequestDTO dto) {
+        long units = toUnits(dto.quantity());
+        ProductStock productStock = stockFor(dto.productId());
+        while (true) {
+            long reserved = productStock.reserved.get();
+            long available = productStock.onHand.get() - reserved;
+            if (available < units) {
+                throw new InsufficientStockException("Only " + fromUnits(available) + " of product "
+                        + dto.productId() + " available, requested " + dto.quantity());
+            }
+            if (productStock.reserved.compareAndSet(reserved, reserved + units)) {
+                break;
+            }
+        }
+
+        long ttl = dto.ttlSeconds() == null ? defaultTtlSeconds : dto.ttlSeconds();
+        Reservation reservation = new Reservation(UUID.randomUUID().toString(), dto.productId(), units,
+                System.nanoTime() + TimeUnit.SECONDS.toNanos(ttl), LocalDateTime.now().plusSeconds(ttl),
+                dto.referenceType(), dto.referenceId());
+        reservations.put(reservation.id, reservation);
+        expiryQueue.add(reservation);
+        pendingMovements.add(new PendingMovement(reservation, MovementType.RESERVE, "Reserved", LocalDateTime.now()));
+
+        return new ReservationResponseDTO(reservation.id, reservation.productId, fromUnits(units),
+                reservation.expiresAt, fromUnits(productStock.available()));
+    }
+
+    public void release(String reservationId) {
+        Reservation reservation = reservations.remove(reservationId);
+        if (reservation == null) {
+            throw new ReservationNotFoundException("Reservation not found or already released: " + reservationId);
+        }
+        releaseReserved(reservation, "Released");
+    }
+
+    public AvailabilityResponseDTO getAvailability(Long productId) {
+        ProductStock productStock = stockFor(productId);
+        long onHand = productStock.onHand.get();
+        long reserved = productStock.reserved.get();
+        return new AvailabilityResponseDTO(productId, fromUnits(onHand), fromUnits(reserved), fromUnits(onHand - reserved));
+    }
+
+    // keep on-hand in step with committed stock changes (receipts, catalog edits)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        ProductStock productStock = stock.get(event.productId());
+        if (productStock != null) {
+            productStock.change(toUnits(event.delta()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.expiry-interval-ms:1000}")
+    public void expireReservations() {
+        Reservation expired;
+        while ((expired = expiryQueue.poll()) != null) {
+            // released reservations stay in the delay queue; only act if it is still live
+            if (reservations.remove(expired.id, expired)) {
+                releaseReserved(expired, "Expired");
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.flush-interval-ms:500}")
+    public void flushMovements() {
+        List<PendingMovement> batch = new ArrayList<>(flushBatchSize);
+        PendingMovement pending;
+        while ((pending = pendingMovements.poll()) != null) {
+            batch.add(pending);
+            if (batch.size() == flushBatchSize) {
+                writeBatch(batch);
+                batch = new ArrayList<>(flushBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushMovements();
+    }
+
+    private void writeBatch(List<PendingMovement> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> stockMovementRepository.saveAll(batch.stream()
+                    .map(this::toMovement)
+                    .toList()));
+        } catch (RuntimeException ex) {
+            // the in-memory reservations stay valid; only their audit rows are lost
+            log.error("Failed to persist {} reservation movements", batch.size(), ex);
+        }
+    }
+
+    private StockMovement toMovement(PendingMovement pending) {
+        Reservation reservation = pending.reservation;
+        // the movement type marks it as a reservation; the reference is the client's (e.g. its order)
+        return StockMovement.builder()
+                .product(productRepository.getReferenceById(reservation.productId))
+                .movementType(pending.type)
+                .quantity(fromUnits(reservation.units))
+                .referenceType(reservation.referenceType)
+                .referenceId(reservation.referenceId)
+                .createdAt(pending.createdAt)
+                .note(pending.note + " reservation " + reservation.id)
+                .build();
+    }
+
+    private void releaseReserved(Reservation reservation, String note) {
+        ProductStock productStock = stock.get(reservation.productId);
+        if (productStock != null) {
+            productStock.reserved.addAndGet(-reservation.units);
+        }
+        pendingMovements.add(new PendingMovement(reservation, MovementType.RELEASE, note, LocalDateTime.now()));
+    }
+
+    private ProductStock stockFor(Long productId) {
+        ProductStock productStock = stock.computeIfAbsent(productId, id -> new ProductStock());
+        if (!productStock.seeded) {
+            seed(productId, productStock);
+        }
+        return productStock;
+    }
+
+    // First touch. The entry is registered before on-hand is read, so stock changes committed meanwhile are
+    // seen by it: each one makes the read suspect, and the read is repeated until none came in during it.
+    // The query runs outside the map and the entry's monitor, so nothing else waits on it.
+    private void seed(Long productId, ProductStock productStock) {
+        while (true) {
+            long changesBefore;
+            synchronized (productStock) {
+                if (productStock.seeded) {
+                    return;
+                }
+                changesBefore = productStock.changesWhileSeeding;
+            }
+            Optional<Product> product = productRepository.findById(productId);
+            if (product.isEmpty()) {
+                stock.remove(productId, productStock);
+                throw new ProductNotFoundException("Product with id " + productId + " not found");
+            }
+            long onHand = toUnits(product.get().getQuantity() == null ? BigDecimal.ZERO : product.get().getQuantity());
+            synchronized (productStock) {
+                if (!productStock.seeded && productStock.changesWhileSeeding == changesBefore) {
+                    productStock.onHand.set(onHand);
+                    productStock.seeded = true;
+                }
+            }
+        }
+    }
+
+    private static long toUnits(BigDecimal quantity) {
+        return quantity.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal fromUnits(long units) {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    private static final class ProductStock {
+        final AtomicLong onHand = new AtomicLong();
+        final AtomicLong reserved = new AtomicLong();
+        // set once on-hand is read; until then, changes are only counted (guarded by the monitor)
+        volatile boolean seeded;
+        long changesWhileSeeding;
+
+        void change(long delta) {
+            if (!seeded) {
+                synchronized (this) {
+                    if (!seeded) {
+                        changesWhileSeeding++;
+                        return;
+                    }
+                }
+            }
+            onHand.addAndGet(delta);
+        }
+
+        long available() {
+            return onHand.get() - reserved.get();
+        }
+    }
+
+    private static final class Reservation implements Delayed {
+        final String id;
+        final Long productId;
+        final long units;
+        final long expiresAtNanos;
+        final LocalDateTime expiresAt;
+        final String referenceType;
+        final Long referenceId;
+
+        Reservation(String id, Long productId, long units, long expiresAtNanos, LocalDateTime expiresAt,
+                    String referenceType, Long referenceId) {
+            this.id = id;
+            this.productId = productId;
+            this.units = units;
+            this.expiresAtNanos = expiresAtNanos;
+            this.expiresAt = expiresAt;
+            this.referenceType = referenceType;
+            this.referenceId = referenceId;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAtNanos, ((Reservation) other).expiresAtNanos);
+        }
+    }
+
+    private record PendingMovement(Reservation reservation, MovementType type, String note, LocalDateTime createdAt) {
+    }
+}
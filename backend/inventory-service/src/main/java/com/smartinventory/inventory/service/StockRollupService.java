@@ -0,0 +1,156 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.dto.DailyMovementResponseDTO;
+import com.smartinventory.inventory.entity.MovementType;
+import com.smartinventory.inventory.exception.ProductNotFoundException;
+import com.smartinventory.inventory.repository.ProductRepository;
+import com.smartinventory.inventory.repository.StockDailyRollupRepository;
+import com.smartinventory.inventory.repository.StockMovementRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Daily per-product movement totals ({@code stock_daily_rollup}) and the movement queries built on them.
+ * <p>
+ * After midnight every finished day that has not been rolled up yet is aggregated with one
+ * {@code INSERT ... SELECT} per day. Queries then read whole days up to the last rolled-up day from the
+ * rollups and only the days after it, and partial days at the edges of the requested window, from
+ * stock_movement. The cost of a query therefore no longer depends on how much history lies inside its window.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockRollupService {
+    // created_at is stored to the microsecond, so (x, t - 1µs] is the same window as (x, t)
+    private static final long RESOLUTION_NANOS = 1_000;
+    private static final String JOB = "stock-rollup";
+
+    private final StockDailyRollupRepository rollupRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLockService jobLockService;
+
+    @Value("${inventory.stock-rollup.max-duration-minutes:120}")
+    private long maxDurationMinutes;
+
+    // on one instance at a time: a day rolled up twice would collide on the rollup's primary key
+    @Scheduled(cron = "${inventory.stock-rollup.cron:0 30 0 * * *}")
+    public void scheduledRollUp() {
+        jobLockService.runExclusively(JOB, Duration.ofMinutes(maxDurationMinutes), this::rollUp);
+    }
+
+    /**
+     * Rolls up every finished day after the last rolled-up one, one transaction per day. Runs after
+     * midnight so the previous day's last transactions have committed.
+     */
+    public void rollUp() {
+        LocalDate last = rollupRepository.findLastRollupDate();
+        LocalDate day;
+        if (last != null) {
+            day = last.plusDays(1);
+        } else {
+            LocalDateTime earliest = stockMovementRepository.findEarliestCreatedAt();
+            if (earliest == null) {
+                return;
+            }
+            day = earliest.toLocalDate();
+        }
+        long started = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        int days = 0;
+        int rows = 0;
+        for (; day.isBefore(today); day = day.plusDays(1)) {
+            LocalDate rolled = day;
+            Integer inserted = transactionTemplate.execute(status ->
+                    rollupRepository.rollUpDay(rolled, rolled.atStartOfDay(), rolled.plusDays(1).atStartOfDay()));
+            rows += inserted == null ? 0 : inserted;
+            days++;
+        }
+        if (days > 0) {
+            log.info("Rolled up {} day(s) of stock movements into {} rows in {} ms",
+                    days, rows, System.currentTimeMillis() - started);
+        }
+    }
+
+    // signed stock change of one product over (from, to]
+    public BigDecimal netChange(Long productId, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            return BigDecimal.ZERO;
+        }
+        // whole days inside the window: starting after `from`, ending no later than `to`, already rolled up
+        LocalDate firstDay = from.toLocalDate().plusDays(1);
+        LocalDate lastDay = to.toLocalDate().minusDays(1);
+        LocalDate rolledUpThrough = rollupRepository.findLastRollupDate();
+        if (rolledUpThrough == null || firstDay.isAfter(lastDay) || firstDay.isAfter(rolledUpThrough)) {
+            return rawNetChange(productId, from, to);
+        }
+        if (lastDay.isAfter(rolledUpThrough)) {
+            lastDay = rolledUpThrough;
+        }
+        LocalDateTime rolledFrom = firstDay.atStartOfDay();
+        LocalDateTime rolledTo = lastDay.plusDays(1).atStartOfDay();
+        StockDailyRollupRepository.Totals totals = rollupRepository.sumBetween(productId, firstDay, lastDay);
+        BigDecimal rolled = signed(MovementType.IN, totals.getInQuantity())
+                .add(signed(MovementType.OUT, totals.getOutQuantity()))
+                .add(signed(MovementType.ADJUSTMENT, totals.getAdjustmentQuantity()));
+        return rawNetChange(productId, from, rolledFrom.minusNanos(RESOLUTION_NANOS))
+                .add(rolled)
+                .add(rawNetChange(productId, rolledTo.minusNanos(RESOLUTION_NANOS), to));
+    }
+
+    /**
+     * IN / OUT / ADJUSTMENT totals per day for {@code [from, to]}; days without movements are left out.
+     */
+    public List<DailyMovementResponseDTO> getDailyMovements(Long productId, LocalDate from, LocalDate to) {
+        if (!productRepository.existsById(productId)) {
+            throw new ProductNotFoundException("Product with id " + productId + " not found");
+        }
+        List<DailyMovementResponseDTO> days = new ArrayList<>();
+        LocalDate rolledUpThrough = rollupRepository.findLastRollupDate();
+        LocalDate rawFrom = from;
+        if (rolledUpThrough != null && !from.isAfter(rolledUpThrough)) {
+            LocalDate end = to.isAfter(rolledUpThrough) ? rolledUpThrough : to;
+            rollupRepository.findByProductIdAndRollupDateBetweenOrderByRollupDateAsc(productId, from, end)
+                    .forEach(r -> days.add(new DailyMovementResponseDTO(r.getRollupDate(), r.getInQuantity(),
+                            r.getOutQuantity(), r.getAdjustmentQuantity(), r.getMovementCount())));
+            rawFrom = rolledUpThrough.plusDays(1);
+        }
+        if (!rawFrom.isAfter(to)) {
+            stockMovementRepository.sumByDay(productId, rawFrom.atStartOfDay(), to.plusDays(1).atStartOfDay())
+                    .forEach(v -> days.add(new DailyMovementResponseDTO(v.getRollupDate(), v.getInQuantity(),
+                            v.getOutQuantity(), v.getAdjustmentQuantity(), v.getMovementCount())));
+        }
+        return days;
+    }
+
+    // (from, to] straight from stock_movement; served by idx_sm_product_created_id
+    private BigDecimal rawNetChange(Long productId, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal net = BigDecimal.ZERO;
+        for (Object[] row : stockMovementRepository.sumQuantityByType(productId, from, to)) {
+            net = net.add(signed((MovementType) row[0], (BigDecimal) row[1]));
+        }
+        return net;
+    }
+
+    private static BigDecimal signed(MovementType type, BigDecimal quantity) {
+        if (quantity == null || type.getStockSign() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return type.getStockSign() > 0 ? quantity : quantity.negate();
+    }
+}
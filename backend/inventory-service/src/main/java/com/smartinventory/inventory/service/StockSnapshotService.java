@@ -0,0 +1,167 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.dto.StockPositionResponseDTO;
+import com.smartinventory.inventory.entity.MovementType;
+import com.smartinventory.inventory.entity.Product;
+import com.smartinventory.inventory.entity.StockSnapshot;
+import com.smartinventory.inventory.exception.ProductNotFoundException;
+import com.smartinventory.inventory.repository.ProductRepository;
+import com.smartinventory.inventory.repository.StockMovementRepository;
+import com.smartinventory.inventory.repository.StockSnapshotRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Periodic per-product stock snapshots and "stock at time T" queries.
+ * <p>
+ * A position is answered from the nearest snapshot plus the signed sum of the movements between the
+ * snapshot and T, so only one product's movements in that window are read (whole days from the daily
+ * rollups, see {@link StockRollupService}). Before the first snapshot the current quantity acts as the
+ * snapshot and the movements since T are subtracted.
+ * <p>
+ * A snapshot is stamped {@code grace-seconds} in the past rather than at the moment it is read: a movement is
+ * stamped when it is written but only visible once its transaction commits, so movements stamped just
+ * before "now" may not be visible yet. The quantity at the cutoff is the current quantity minus the
+ * movements after the cutoff, both read in one REPEATABLE READ transaction so they agree with each other.
+ * Only transactions still open {@code grace-seconds} after writing their movements can be missed. Snapshots
+ * run on one instance at a time ({@link JobLockService}).
+ */
+@Slf4j
+@Service
+public class StockSnapshotService {
+    private static final String JOB = "stock-snapshot";
+
+    private final ProductRepository productRepository;
+    private final StockSnapshotRepository stockSnapshotRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final StockRollupService stockRollupService;
+    private final JobLockService jobLockService;
+    private final TransactionTemplate snapshotTransaction;
+    private final int chunkSize;
+    private final long graceSeconds;
+    private final Duration maxDuration;
+
+    public StockSnapshotService(ProductRepository productRepository,
+                                StockSnapshotRepository stockSnapshotRepository,
+                                StockMovementRepository stockMovementRepository,
+                                StockRollupService stockRollupService,
+                                JobLockService jobLockService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${inventory.stock-snapshot.chunk-size:1000}") int chunkSize,
+                                @Value("${inventory.stock-snapshot.grace-seconds:300}") long graceSeconds,
+                                @Value("${inventory.stock-snapshot.max-duration-minutes:120}") long maxDurationMinutes) {
+        this.productRepository = productRepository;
+        this.stockSnapshotRepository = stockSnapshotRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.stockRollupService = stockRollupService;
+        this.jobLockService = jobLockService;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.chunkSize = chunkSize;
+        this.graceSeconds = graceSeconds;
+        this.maxDuration = Duration.ofMinutes(maxDurationMinutes);
+    }
+
+    @Scheduled(cron = "${inventory.stock-snapshot.cron:0 0 1 * * *}")
+    public void scheduledSnapshots() {
+        jobLockService.runExclusively(JOB, maxDuration, this::takeSnapshots);
+    }
+
+    /**
+     * Snapshots the on-hand quantity of every active product as of {@code grace-seconds} ago, one transaction
+     * per chunk of products.
+     */
+    public void takeSnapshots() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(graceSeconds);
+        long started = System.currentTimeMillis();
+        long lastId = 0;
+        int products = 0;
+        while (true) {
+            long after = lastId;
+            List<Long> chunk = snapshotTransaction.execute(status -> snapshotChunk(after, cutoff));
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            products += chunk.size();
+            lastId = chunk.get(chunk.size() - 1);
+        }
+        log.info("Snapshotted stock of {} products as of {} in {} ms", products, cutoff, System.currentTimeMillis() - started);
+    }
+
+    // returns the product ids of the chunk, empty when there was nothing left
+    private List<Long> snapshotChunk(long afterId, LocalDateTime cutoff) {
+        List<Product> products = productRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(chunkSize));
+        if (products.isEmpty()) {
+            return List.of();
+        }
+        long lastId = products.get(products.size() - 1).getId();
+        // what moved after the cutoff is taken back off the current quantity
+        Map<Long, BigDecimal> sinceCutoff = new HashMap<>();
+        for (Object[] row : stockMovementRepository.sumByProductAndTypeAfter(afterId, lastId, cutoff)) {
+            int sign = ((MovementType) row[1]).getStockSign();
+            if (sign != 0 && row[2] != null) {
+                BigDecimal quantity = (BigDecimal) row[2];
+                sinceCutoff.merge((Long) row[0], sign > 0 ? quantity : quantity.negate(), BigDecimal::add);
+            }
+        }
+        stockSnapshotRepository.saveAll(products.stream()
+                .map(p -> StockSnapshot.builder()
+                        .product(p)
+                        .quantity((p.getQuantity() == null ? BigDecimal.ZERO : p.getQuantity())
+                                .subtract(sinceCutoff.getOrDefault(p.getId(), BigDecimal.ZERO)))
+                        .snapshotAt(cutoff)
+                        .build())
+                .toList());
+        return products.stream().map(Product::getId).toList();
+    }
+
+    public StockPositionResponseDTO getStockAsOf(Long productId, LocalDateTime asOf) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ProductNotFoundException("Product with id " + productId + " not found"));
+        return stockAsOf(product, asOf);
+    }
+
+    public StockPositionResponseDTO getStockAsOfBySku(String sku, LocalDateTime asOf) {
+        Product product = productRepository.findBySku(sku)
+                .orElseThrow(() -> new ProductNotFoundException("Product with SKU " + sku + " not found"));
+        return stockAsOf(product, asOf);
+    }
+
+    private StockPositionResponseDTO stockAsOf(Product product, LocalDateTime asOf) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime at = asOf == null || asOf.isAfter(now) ? now : asOf;
+
+        Optional<StockSnapshot> before = stockSnapshotRepository
+                .findFirstByProductIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(product.getId(), at);
+        if (before.isPresent()) {
+            StockSnapshot snapshot = before.get();
+            BigDecimal quantity = snapshot.getQuantity()
+                    .add(stockRollupService.netChange(product.getId(), snapshot.getSnapshotAt(), at));
+            return new StockPositionResponseDTO(product.getId(), product.getSku(), at, quantity, snapshot.getSnapshotAt());
+        }
+
+        // no snapshot yet at that time: walk back from the next snapshot, or from the current quantity
+        Optional<StockSnapshot> after = stockSnapshotRepository
+                .findFirstByProductIdAndSnapshotAtGreaterThanOrderBySnapshotAtAsc(product.getId(), at);
+        BigDecimal baseQuantity = after.map(StockSnapshot::getQuantity)
+                .orElse(product.getQuantity() == null ? BigDecimal.ZERO : product.getQuantity());
+        LocalDateTime baseAt = after.map(StockSnapshot::getSnapshotAt).orElse(now);
+        BigDecimal quantity = baseQuantity.subtract(stockRollupService.netChange(product.getId(), at, baseAt));
+        return new StockPositionResponseDTO(product.getId(), product.getSku(), at, quantity,
+                after.map(StockSnapshot::getSnapshotAt).orElse(null));
+    }
+}
@@ -0,0 +1,258 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.event.ProductSupplierChangedEvent;
+import com.smartinventory.inventory.repository.ProductSupplierRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-memory copy of product_supplier for purchase order costing: supplier price and lead time by
+ * (product, supplier), answered without touching the database.
+ * <p>
+ * All mappings sit in one open-addressing hash table (linear probing) made of parallel primitive arrays, so
+ * an entry costs a few array slots rather than a map entry, two boxed keys and a value object. Prices are
+ * kept as longs in cents, matching the column's two decimals.
+ * <p>
+ * The table is loaded once the application is ready and reloaded every {@code reload-interval-ms}, which also
+ * picks up price changes and deletions made through other instances. In between, each committed
+ * {@link ProductSupplierChangedEvent} re-reads its one mapping, and mappings missing from the table are looked
+ * up in the database (and kept) on first use, so a mapping created elsewhere is never reported as missing. A
+ * looked-up mapping is only kept if no event or reload was applied while it was read, so a deletion or price
+ * change landing in between isn't overwritten by the older row.
+ * Writers are serialised; a lookup is an optimistic {@link StampedLock} read that only falls back to the read
+ * lock when a write overlapped it.
+ */
+@Slf4j
+@Component
+public class SupplierPriceMatrix {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ProductSupplierRepository productSupplierRepository;
+    private final int loadChunkSize;
+
+    private final StampedLock lock = new StampedLock();
+    // replaced whole on resize and reload; read under the lock's stamp, written under its write lock
+    private Table table = new Table(INITIAL_CAPACITY);
+    // bumped under this object's monitor by every event and reload; database lookups started before are discarded
+    private volatile long generation;
+
+    public SupplierPriceMatrix(ProductSupplierRepository productSupplierRepository,
+                               @Value("${inventory.supplier-price-matrix.load-chunk-size:5000}") int loadChunkSize) {
+        this.productSupplierRepository = productSupplierRepository;
+        this.loadChunkSize = loadChunkSize;
+    }
+
+    /**
+     * Price and lead time of {@code productId} from {@code supplierId}, or null if the supplier doesn't supply it.
+     */
+    public SupplierPrice find(long productId, long supplierId) {
+        long stamp = lock.tryOptimisticRead();
+        SupplierPrice found = table.find(productId, supplierId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                found = table.find(productId, supplierId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Supplier prices of those of {@code productIds} the supplier supplies. Products not in the table cost one
+     * query for all of them.
+     */
+    public Map<Long, BigDecimal> findPrices(long supplierId, Collection<Long> productIds) {
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long productId : productIds) {
+            SupplierPrice found = find(productId, supplierId);
+            if (found != null) {
+                prices.put(productId, found.price());
+            } else {
+                missing.add(productId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long readAt = generation;
+            List<ProductSupplierRepository.PriceView> rows = productSupplierRepository.findPriceViews(supplierId, missing);
+            synchronized (this) {
+                for (ProductSupplierRepository.PriceView row : rows) {
+                    prices.put(row.getProductId(), row.getSupplierPrice());
+                    if (generation == readAt) {
+                        store(row.getProductId(), row.getSupplierId(), Optional.of(row));
+                    }
+                }
+            }
+        }
+        return prices;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${inventory.supplier-price-matrix.reload-interval-ms:900000}",
+            initialDelayString = "${inventory.supplier-price-matrix.reload-interval-ms:900000}")
+    public void reload() {
+        long started = System.currentTimeMillis();
+        synchronized (this) {
+            Table loaded = new Table(INITIAL_CAPACITY);
+            long lastId = 0;
+            List<ProductSupplierRepository.PriceView> chunk;
+            while (!(chunk = productSupplierRepository.findPriceViewsAfter(lastId, Limit.of(loadChunkSize))).isEmpty()) {
+                for (ProductSupplierRepository.PriceView row : chunk) {
+                    loaded = loaded.put(row.getProductId(), row.getSupplierId(), cents(row.getSupplierPrice()),
+                            leadTime(row.getLeadTimeDays()));
+                }
+                lastId = chunk.get(chunk.size() - 1).getId();
+            }
+            generation++;
+            long stamp = lock.writeLock();
+            try {
+                table = loaded;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            log.info("Supplier price matrix loaded with {} mappings in {} ms",
+                    loaded.size, System.currentTimeMillis() - started);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductSupplierChanged(ProductSupplierChangedEvent event) {
+        if (event.supplierId() == null) {
+            // a restore; the matrix doesn't drop the mappings of deleted products
+            return;
+        }
+        synchronized (this) {
+            generation++;
+            store(event.productId(), event.supplierId(),
+                    productSupplierRepository.findPriceView(event.productId(), event.supplierId()));
+        }
+    }
+
+    // callers hold this object's monitor
+    private void store(long productId, long supplierId, Optional<ProductSupplierRepository.PriceView> row) {
+        long stamp = lock.writeLock();
+        try {
+            if (row.isPresent()) {
+                table = table.put(productId, supplierId, cents(row.get().getSupplierPrice()),
+                        leadTime(row.get().getLeadTimeDays()));
+            } else {
+                table.remove(productId, supplierId);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private static long cents(BigDecimal price) {
+        return price.movePointRight(2).longValueExact();
+    }
+
+    private static int leadTime(Integer leadTimeDays) {
+        return leadTimeDays == null ? 0 : leadTimeDays;
+    }
+
+    public record SupplierPrice(BigDecimal price, int leadTimeDays) {
+    }
+
+    /**
+     * Linear-probing hash table over (productId, supplierId). Ids start at 1, so a productId of 0 marks a
+     * free slot. At most half full, so probes stay short and every probe sequence ends at a free slot.
+     * Package-private for tests.
+     */
+    static final class Table {
+        final long[] productIds;
+        final long[] supplierIds;
+        final long[] prices;
+        final int[] leadTimes;
+        final int mask;
+        int size;
+
+        Table(int capacity) {
+            productIds = new long[capacity];
+            supplierIds = new long[capacity];
+            prices = new long[capacity];
+            leadTimes = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        // may run concurrently with a write when read optimistically: never fails, and gives up after one lap
+        SupplierPrice find(long productId, long supplierId) {
+            int slot = home(productId, supplierId);
+            for (int probes = 0; probes <= mask && productIds[slot] != 0; probes++, slot = (slot + 1) & mask) {
+                if (productIds[slot] == productId && supplierIds[slot] == supplierId) {
+                    return new SupplierPrice(BigDecimal.valueOf(prices[slot], 2), leadTimes[slot]);
+                }
+            }
+            return null;
+        }
+
+        // returns the table now holding the entry: this one, or a doubled copy once it would be over half full
+        Table put(long productId, long supplierId, long price, int leadTime) {
+            if ((size + 1) * 2 > productIds.length) {
+                Table bigger = new Table(productIds.length * 2);
+                for (int i = 0; i < productIds.length; i++) {
+                    if (productIds[i] != 0) {
+                        bigger.put(productIds[i], supplierIds[i], prices[i], leadTimes[i]);
+                    }
+                }
+                return bigger.put(productId, supplierId, price, leadTime);
+            }
+            int slot = home(productId, supplierId);
+            while (productIds[slot] != 0 && (productIds[slot] != productId || supplierIds[slot] != supplierId)) {
+                slot = (slot + 1) & mask;
+            }
+            if (productIds[slot] == 0) {
+                size++;
+            }
+            productIds[slot] = productId;
+            supplierIds[slot] = supplierId;
+            prices[slot] = price;
+            leadTimes[slot] = leadTime;
+            return this;
+        }
+
+        // backward-shift deletion: entries after the freed slot move up so no probe sequence is cut short
+        void remove(long productId, long supplierId) {
+            int free = home(productId, supplierId);
+            while (productIds[free] != productId || supplierIds[free] != supplierId) {
+                if (productIds[free] == 0) {
+                    return;
+                }
+                free = (free + 1) & mask;
+            }
+            for (int slot = (free + 1) & mask; productIds[slot] != 0; slot = (slot + 1) & mask) {
+                int home = home(productIds[slot], supplierIds[slot]);
+                // the entry can fill the gap unless its home lies cyclically in (free, slot]
+                boolean staysPut = free <= slot ? free < home && home <= slot : free < home || home <= slot;
+                if (!staysPut) {
+                    productIds[free] = productIds[slot];
+                    supplierIds[free] = supplierIds[slot];
+                    prices[free] = prices[slot];
+                    leadTimes[free] = leadTimes[slot];
+                    free = slot;
+                }
+            }
+            productIds[free] = 0;
+            supplierIds[free] = 0;
+            size--;
+        }
+
+        int home(long productId, long supplierId) {
+            long h = (productId * 0x9E3779B97F4A7C15L) ^ supplierId;
+            h *= 0xC2B2AE3D27D4EB4FL;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.smartinventory.inventory.service;
 
+import com.smartinventory.inventory.dto.CursorPageResponseDTO;
 import com.smartinventory.inventory.dto.SupplierRequestDTO;
 import com.smartinventory.inventory.dto.SupplierResponseDTO;
 import com.smartinventory.inventory.entity.Product;
@@ -8,7 +9,9 @@ import com.smartinventory.inventory.exception.DuplicateSupplierException;
 import com.smartinventory.inventory.exception.ProductNotFoundException;
 import com.smartinventory.inventory.exception.SupplierNotFoundException;
 import com.smartinventory.inventory.repository.SupplierRepository;
+import com.smartinventory.inventory.util.CursorCodec;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
@@ -18,6 +21,8 @@ import java.util.Optional;
 
 @Service
 public class SupplierService {
+    private static final String CURSOR_SCOPE = "suppliers";
+
     @Autowired
     private SupplierRepository supplierRepository;
 
@@ -47,7 +52,16 @@ public class SupplierService {
     }
 
     public List<SupplierResponseDTO> getAllSupplier(Pageable pageable) {
-        return supplierRepository.findAll(pageable).map(this::entityToDto).stream().toList();
+        // the total is not returned, so fetch a Slice and skip the count(*)
+        return supplierRepository.findAllBy(pageable).map(this::entityToDto).getContent();
+    }
+
+    public CursorPageResponseDTO<SupplierResponseDTO> getSuppliersAfter(String cursor, int size) {
+        long afterId = cursor == null || cursor.isBlank() ? 0 : CursorCodec.decodeId(cursor, CURSOR_SCOPE);
+        int pageSize = CursorCodec.clampSize(size);
+        List<Supplier> rows = supplierRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        return CursorPageResponseDTO.of(rows, pageSize, this::entityToDto,
+                s -> CursorCodec.encode(CURSOR_SCOPE, s.getId()));
     }
 
     public SupplierResponseDTO getSupplierById(Long id) {
@@ -0,0 +1,53 @@
+package com.smartinventory.inventory.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartinventory.inventory.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Per-user token generation used to revoke JWTs without a database lookup per request.
+ * <p>
+ * Every token carries the user's generation at issue time ({@link #CLAIM}); a token is only accepted while
+ * its generation is still the current one. {@link #revokeAll} bumps the generation, which invalidates every
+ * token issued to that user so far.
+ * <p>
+ * The generation is stored on {@code app_user}, so a revocation survives restarts and reaches every instance.
+ * Each instance caches it for {@code cache-ttl-ms}: the instance that revoked sees the new generation at once,
+ * the others once their cached value expires.
+ */
+@Component
+public class TokenGenerationRegistry {
+    public static final String CLAIM = "gen";
+
+    private final UserRepository userRepository;
+    private final Cache<String, Integer> generations;
+
+    public TokenGenerationRegistry(UserRepository userRepository,
+                                   @Value("${inventory.token-generation.cache-ttl-ms:5000}") long cacheTtlMs,
+                                   @Value("${inventory.token-generation.cache-size:10000}") long cacheSize) {
+        this.userRepository = userRepository;
+        this.generations = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    public int current(String username) {
+        // unknown users have no tokens worth accepting; 0 is cached like any other value
+        return generations.get(username, u -> userRepository.findTokenGeneration(u).orElse(0));
+    }
+
+    public boolean isCurrent(String username, Number tokenGeneration) {
+        return (tokenGeneration == null ? 0 : tokenGeneration.intValue()) == current(username);
+    }
+
+    public void revokeAll(String username) {
+        // committed before the cached value is dropped, so the next read can't bring the old one back
+        userRepository.incrementTokenGeneration(username);
+        generations.invalidate(username);
+    }
+}
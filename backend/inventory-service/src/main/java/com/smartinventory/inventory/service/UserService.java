@@ -5,6 +5,7 @@ import com.smartinventory.inventory.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
@@ -14,7 +15,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
     @Autowired
     private UserRepository userRepository;
     @Override
@@ -23,4 +24,14 @@ public class UserService implements UserDetailsService {
         List<SimpleGrantedAuthority> authorities=user.getRoles().stream().map(r->new SimpleGrantedAuthority(r.name())).toList();
         return new org.springframework.security.core.userdetails.User(user.getUsername(),user.getPassword(),authorities);
     }
+
+    // Called by DaoAuthenticationProvider after a successful login whose stored hash is weaker than the
+    // configured encoder (e.g. a lower BCrypt strength), so raising the cost needs no migration.
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user=userRepository.findByUsername(userDetails.getUsername()).orElseThrow(()->new UsernameNotFoundException("User not found for username : "+userDetails.getUsername()));
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails).password(newPassword).build();
+    }
 }
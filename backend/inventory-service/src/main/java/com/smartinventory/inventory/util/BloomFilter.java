@@ -0,0 +1,67 @@
+package com.smartinventory.inventory.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over 32-byte SHA-256 digests.
+ * <p>
+ * The digest is already uniformly distributed, so its first two 64-bit words serve as the two base hashes
+ * for double hashing ({@code h1 + i * h2}) and no further hashing is done. Bits live in an
+ * {@link AtomicLongArray}: {@link #put} and {@link #mightContain} are lock-free and safe to call concurrently.
+ * Entries cannot be removed; build a new filter to drop them.
+ */
+public final class BloomFilter {
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions number of entries the filter is sized for
+     * @param falsePositiveRate  target false-positive probability at that size, e.g. {@code 0.001}
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (bits + 63) >>> 6);
+        this.words = new AtomicLongArray(words);
+        this.bitCount = (long) words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public void put(byte[] digest) {
+        long h1 = word(digest, 0);
+        long h2 = word(digest, 8);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while (((current = words.get(index)) & mask) == 0 && !words.compareAndSet(index, current, current | mask)) {
+                // another bit of the same word changed underneath us; retry
+            }
+        }
+    }
+
+    /**
+     * {@code false} means the digest was definitely never added; {@code true} means it probably was.
+     */
+    public boolean mightContain(byte[] digest) {
+        long h1 = word(digest, 0);
+        long h2 = word(digest, 8);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long word(byte[] digest, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            value = (value << 8) | (digest[i] & 0xFF);
+        }
+        return value;
+    }
+}
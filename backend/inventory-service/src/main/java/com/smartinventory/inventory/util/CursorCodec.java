@@ -0,0 +1,60 @@
+package com.smartinventory.inventory.util;
+
+import com.smartinventory.inventory.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation tokens for keyset pagination.
+ * <p>
+ * A cursor is the sort key of the last row of a page, prefixed with a scope so a product cursor can't be
+ * replayed against purchase orders, and base64url encoded. Clients only pass it back; they never parse it.
+ */
+public final class CursorCodec {
+    public static final int MAX_PAGE_SIZE = 200;
+    private static final char SEPARATOR = '|';
+
+    private CursorCodec() {
+    }
+
+    public static String encode(String scope, Object... keys) {
+        StringBuilder raw = new StringBuilder(scope);
+        for (Object key : keys) {
+            raw.append(SEPARATOR).append(key);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The {@code keyCount} keys of a cursor created by {@link #encode} with the same scope.
+     */
+    public static String[] decode(String cursor, String scope, int keyCount) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        String[] parts = raw.split("\\" + SEPARATOR, -1);
+        if (parts.length != keyCount + 1 || !parts[0].equals(scope)) {
+            throw new InvalidCursorException("Cursor does not belong to this listing");
+        }
+        String[] keys = new String[keyCount];
+        System.arraycopy(parts, 1, keys, 0, keyCount);
+        return keys;
+    }
+
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    public static long decodeId(String cursor, String scope) {
+        String key = decode(cursor, scope, 1)[0];
+        try {
+            return Long.parseLong(key);
+        } catch (NumberFormatException ex) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.smartinventory.inventory.util;
+
+/**
+ * Bulk file formats accepted by the imports and produced by the exports.
+ */
+public enum FileFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");   // one JSON object per line
+
+    private final String contentType;
+    private final String extension;
+
+    FileFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+}
@@ -1,13 +1,17 @@
 package com.smartinventory.inventory.util;
 
-import com.smartinventory.inventory.service.UserService;
+import com.smartinventory.inventory.service.RefreshTokenRevocationService;
+import com.smartinventory.inventory.service.TokenGenerationRegistry;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -15,15 +19,37 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 
+/**
+ * Authenticates requests carrying a Bearer access token.
+ * <p>
+ * In claims-only mode (the default) the {@code Authentication} is built from the verified token alone: the
+ * subject is the principal and the {@code roles} claim the authorities, and revocation is checked against
+ * the in-memory {@link TokenGenerationRegistry}, so the hot path does no database work. With claims-only
+ * off, the user and roles are loaded through the {@link UserDetailsService} on every request as before.
+ * <p>
+ * Only access tokens are accepted here, and only while their login session has not been revoked (logout),
+ * as far as {@link RefreshTokenRevocationService#mightBeRevoked} knows.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtUtils jwtUtils;
     private final UserDetailsService userDetailsService;
+    private final TokenGenerationRegistry tokenGenerations;
+    private final RefreshTokenRevocationService revocations;
+    private final boolean claimsOnly;
 
-    public JwtAuthenticationFilter(JwtUtils jwtUtils, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtils jwtUtils, UserDetailsService userDetailsService,
+                                   TokenGenerationRegistry tokenGenerations,
+                                   RefreshTokenRevocationService revocations,
+                                   @Value("${spring.security.jwt.claims-only:true}") boolean claimsOnly) {
         this.jwtUtils = jwtUtils;
         this.userDetailsService = userDetailsService;
+        this.tokenGenerations = tokenGenerations;
+        this.revocations = revocations;
+        this.claimsOnly = claimsOnly;
     }
 
     @Override
@@ -32,9 +58,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
             try {
-                String username = jwtUtils.extractUsername(token);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                Claims claims = jwtUtils.extractClaim(token);
+                String username = claims.getSubject();
+                if (!JwtUtils.ACCESS.equals(claims.get(JwtUtils.TYPE_CLAIM))) {
+                    throw new JwtException("Not an access token");
+                }
+                String sessionId = claims.get(JwtUtils.SESSION_CLAIM, String.class);
+                if (username == null || sessionId == null
+                        || !tokenGenerations.isCurrent(username, claims.get(TokenGenerationRegistry.CLAIM, Number.class))
+                        || revocations.mightBeRevoked(sessionId)) {
+                    throw new JwtException("Token has been revoked");
+                }
+                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken;
+                if (claimsOnly) {
+                    usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(username, null, authorities(claims));
+                } else {
+                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                }
                 SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
             } catch (JwtException e) {
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -45,4 +86,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    private static Collection<GrantedAuthority> authorities(Claims claims) {
+        Object roles = claims.get("roles");
+        if (!(roles instanceof List<?> list)) {
+            return List.of();
+        }
+        return list.stream().map(r -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(r))).toList();
+    }
 }
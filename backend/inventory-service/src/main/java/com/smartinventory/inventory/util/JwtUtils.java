@@ -1,43 +1,95 @@
 package com.smartinventory.inventory.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
-import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.jpa.support.PageableUtils;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtils {
+    // "access" or "refresh"; a token is only accepted where its type is expected
+    public static final String TYPE_CLAIM = "typ";
+    public static final String ACCESS = "access";
+    public static final String REFRESH = "refresh";
+    // id of the login session, shared by every token issued from that login through its refreshes
+    public static final String SESSION_CLAIM = "sid";
+
     private final Key key;
     private final long accessTokenValidityMs;
     private final long refreshTokenValidityMs;
+    // thread-safe and immutable, so one parser serves every request
+    private final JwtParser parser;
+    // verified claims by SHA-256 of the token; each entry lives until its token expires
+    private final Cache<String, Claims> verifiedClaims;
 
     public JwtUtils(@Value("${spring.security.jwt.secret}") String secret, @Value("${spring.security.jwt.access-exp-ms}") long accessMs,
-                    @Value("${spring.security.jwt.refresh-exp-ms}") long refreshMs) {
+                    @Value("${spring.security.jwt.refresh-exp-ms}") long refreshMs,
+                    @Value("${spring.security.jwt.claims-cache-size:10000}") long claimsCacheSize) {
         this.key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secret));
         this.accessTokenValidityMs = accessMs;
         this.refreshTokenValidityMs = refreshMs;
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                        long remainingMs = claims.getExpiration() == null
+                                ? accessTokenValidityMs
+                                : claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public long getAccessTokenValidityMs() {
+        return accessTokenValidityMs;
+    }
+
+    public long getRefreshTokenValidityMs() {
+        return refreshTokenValidityMs;
     }
 
     public String generateAccessToken(String username, Map<String, Object> claims) {
         Date now = new Date();
         Date exp = new Date(now.getTime() + accessTokenValidityMs);
-        return Jwts.builder().setSubject(username).setClaims(claims).setIssuedAt(now).setExpiration(exp).signWith(key, SignatureAlgorithm.HS256).compact();
+        // setClaims replaces the whole body, so it has to come before the subject and type
+        return Jwts.builder().setClaims(claims).claim(TYPE_CLAIM, ACCESS).setSubject(username).setIssuedAt(now).setExpiration(exp).signWith(key, SignatureAlgorithm.HS256).compact();
     }
 
-    public String generateRefreshToken(String username) {
+    public String generateRefreshToken(String username, Map<String, Object> claims) {
         Date now = new Date();
         Date exp = new Date(now.getTime() + refreshTokenValidityMs);
         return Jwts.builder()
+                .setClaims(claims)
+                .claim(TYPE_CLAIM, REFRESH)
                 .setSubject(username)
                 .setIssuedAt(now)
                 .setExpiration(exp)
@@ -45,8 +97,17 @@ public class JwtUtils {
                 .compact();
     }
 
+    /**
+     * Verified claims of {@code token}. A token is parsed and its signature checked once; repeats are answered
+     * from the cache until the token expires. Invalid tokens are never cached. The returned claims are shared
+     * and must not be modified.
+     */
     public Claims extractClaim(String token) throws JwtException {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        if (token == null || token.isBlank()) {
+            throw new JwtException("Missing token");
+        }
+        // the cache drops entries at expiry; the parser's own expiry check covers first use
+        return verifiedClaims.get(digest(token), d -> parser.parseClaimsJws(token).getBody());
     }
 
     public String extractUsername(String token) {
@@ -60,4 +121,16 @@ public class JwtUtils {
     public boolean isValidToken(String token, String username) {
         return extractExpiryDate(token).getTime() > new Date().getTime() && username.equals(extractUsername(token));
     }
+
+    private static String digest(String token) {
+        return Base64.getEncoder().encodeToString(sha256(token));
+    }
+
+    public static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
@@ -0,0 +1,53 @@
+-- Converts stock_movement into a table range-partitioned by month on created_at (PostgreSQL 12+).
+--
+-- Run once, with the service stopped. No rows are copied: the existing table is attached as the partition
+-- stock_movement_legacy, holding everything before the current month. The old rows are read to validate
+-- the CHECK constraint on their range and to build the (id, created_at) primary key index (and
+-- idx_sm_created if the table doesn't have it yet), but never rewritten.
+--
+-- On its next start the service (StockMovementPartitionManager) creates the coming months' partitions,
+-- and from then on archives partitions older than inventory.stock-movement.retention-months once they
+-- are rolled up. stock_movement_legacy is one partition and can only be archived as a whole, once its
+-- upper bound (the cutover month) is older than the retention period; until then none of the history from
+-- before the cutover can be archived. To archive it month by month instead, split it with
+-- stock_movement_split_legacy.sql afterwards (that one does copy the rows).
+-- The session time zone must match the service's, since created_at is a local timestamp.
+
+BEGIN;
+
+ALTER TABLE stock_movement RENAME TO stock_movement_legacy;
+ALTER TABLE stock_movement_legacy RENAME CONSTRAINT stock_movement_pkey TO stock_movement_legacy_pkey;
+ALTER INDEX IF EXISTS idx_sm_product RENAME TO idx_sm_legacy_product;
+ALTER INDEX IF EXISTS idx_sm_ref RENAME TO idx_sm_legacy_ref;
+ALTER INDEX IF EXISTS idx_sm_product_created_id RENAME TO idx_sm_legacy_product_created_id;
+-- superseded by idx_sm_product_created_id
+DROP INDEX IF EXISTS idx_sm_product_created;
+ALTER INDEX IF EXISTS idx_sm_created RENAME TO idx_sm_legacy_created;
+
+-- the partition key has to be part of the primary key
+CREATE TABLE stock_movement (LIKE stock_movement_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (created_at);
+ALTER TABLE stock_movement ADD CONSTRAINT stock_movement_pkey PRIMARY KEY (id, created_at);
+ALTER TABLE stock_movement ADD CONSTRAINT fk_sm_product FOREIGN KEY (product_id) REFERENCES product (id);
+
+-- created on the parent, so every partition gets them; the legacy ones are attached, not rebuilt
+CREATE INDEX idx_sm_product ON stock_movement (product_id);
+CREATE INDEX idx_sm_ref ON stock_movement (reference_type, reference_id);
+-- exactly as declared on the entity, so the legacy table's index of the same columns is attached as it is
+CREATE INDEX idx_sm_product_created_id ON stock_movement (product_id, created_at DESC, id DESC);
+CREATE INDEX idx_sm_created ON stock_movement (created_at);
+
+DO $$
+DECLARE
+    cutover timestamp := date_trunc('month', localtimestamp);
+BEGIN
+    EXECUTE format('ALTER TABLE stock_movement_legacy ADD CONSTRAINT stock_movement_legacy_range CHECK (created_at < %L)', cutover);
+    EXECUTE format('ALTER TABLE stock_movement ATTACH PARTITION stock_movement_legacy FOR VALUES FROM (MINVALUE) TO (%L)', cutover);
+    EXECUTE format('CREATE TABLE %I PARTITION OF stock_movement FOR VALUES FROM (%L) TO (%L)',
+                   to_char(cutover, '"stock_movement_y"YYYY"m"MM'), cutover, cutover + interval '1 month');
+END $$;
+
+-- safety net for rows outside every partition; should stay empty
+CREATE TABLE stock_movement_default PARTITION OF stock_movement DEFAULT;
+
+COMMIT;
@@ -0,0 +1,42 @@
+-- Splits stock_movement_legacy, the single partition stock_movement_partitioning.sql made of everything from
+-- before the conversion, into monthly partitions. StockMovementPartitionManager can then archive the old
+-- history a month at a time as each month passes the retention period, instead of all at once when the
+-- cutover month does.
+--
+-- Optional, and run once with the service stopped: unlike the conversion, this copies the legacy rows, and
+-- stock_movement stays locked until it commits. The new partitions get the parent's indexes when attached.
+-- The session time zone must match the service's, since created_at is a local timestamp.
+
+BEGIN;
+
+DO $$
+DECLARE
+    cutover timestamp;
+    month timestamp;
+    part text;
+BEGIN
+    -- the legacy range is FROM (MINVALUE) TO (cutover); the monthly partitions go on from there
+    SELECT substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \(''([^'']+)''\)')::timestamp INTO cutover
+    FROM pg_class c
+    WHERE c.relname = 'stock_movement_legacy' AND c.relnamespace = current_schema()::regnamespace;
+    SELECT date_trunc('month', min(created_at)) INTO month FROM stock_movement_legacy;
+
+    ALTER TABLE stock_movement DETACH PARTITION stock_movement_legacy;
+
+    WHILE month IS NOT NULL AND month < cutover LOOP
+        part := to_char(month, '"stock_movement_y"YYYY"m"MM');
+        EXECUTE format('CREATE TABLE %I (LIKE stock_movement INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', part);
+        EXECUTE format('INSERT INTO %I SELECT * FROM stock_movement_legacy WHERE created_at >= %L AND created_at < %L',
+                       part, month, month + interval '1 month');
+        -- lets ATTACH skip its validation scan
+        EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I CHECK (created_at >= %L AND created_at < %L)',
+                       part, part || '_range', month, month + interval '1 month');
+        EXECUTE format('ALTER TABLE stock_movement ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                       part, month, month + interval '1 month');
+        month := month + interval '1 month';
+    END LOOP;
+END $$;
+
+DROP TABLE stock_movement_legacy;
+
+COMMIT;
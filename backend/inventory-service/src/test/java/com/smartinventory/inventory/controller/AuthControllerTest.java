@@ -0,0 +1,162 @@
+package com.smartinventory.inventory.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartinventory.inventory.dto.AuthResponseDTO;
+import com.smartinventory.inventory.entity.Role;
+import com.smartinventory.inventory.entity.User;
+import com.smartinventory.inventory.repository.RevokedTokenRepository;
+import com.smartinventory.inventory.repository.UserRepository;
+import com.smartinventory.inventory.service.RefreshTokenRevocationService;
+import com.smartinventory.inventory.service.TokenGenerationRegistry;
+import com.smartinventory.inventory.util.JwtUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+    @Autowired
+    private JwtUtils jwtUtils;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void logoutEndsTheWholeSession() throws Exception {
+        AuthResponseDTO first = login("session-user");
+        AuthResponseDTO second = refresh(first.refreshToken());
+        assertAccepted(second.accessToken());
+
+        // log out with the older refresh token: the newer one and every access token go too
+        mockMvc.perform(post("/auth/logout").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("refreshToken", first.refreshToken()))))
+                .andExpect(status().isNoContent());
+
+        for (String refreshToken : new String[]{first.refreshToken(), second.refreshToken()}) {
+            mockMvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                            .content(json(Map.of("refreshToken", refreshToken))))
+                    .andExpect(status().isUnauthorized());
+        }
+        assertRejected(first.accessToken());
+        assertRejected(second.accessToken());
+    }
+
+    @Test
+    void otherSessionsOfTheUserSurviveLogout() throws Exception {
+        AuthResponseDTO kept = login("two-session-user");
+        AuthResponseDTO ended = login("two-session-user");
+        mockMvc.perform(post("/auth/logout").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("refreshToken", ended.refreshToken()))));
+
+        assertRejected(ended.accessToken());
+        assertAccepted(kept.accessToken());
+        refresh(kept.refreshToken());
+    }
+
+    @Test
+    void refreshTokenIsNotAnAccessToken() throws Exception {
+        AuthResponseDTO tokens = login("type-user");
+        assertRejected(tokens.refreshToken());
+        mockMvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("refreshToken", tokens.accessToken()))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void anotherInstanceSeesTheRevocation() throws Exception {
+        AuthResponseDTO tokens = login("remote-user");
+        String sessionId = jwtUtils.extractClaim(tokens.refreshToken()).get(JwtUtils.SESSION_CLAIM, String.class);
+        RefreshTokenRevocationService otherInstance = new RefreshTokenRevocationService(revokedTokenRepository,
+                jwtUtils, transactionTemplate, 1000, 0.001);
+        otherInstance.rebuild();
+
+        mockMvc.perform(post("/auth/logout").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("refreshToken", tokens.refreshToken()))));
+
+        // refreshes and access checks both catch up on the next sync
+        assertFalse(otherInstance.mightBeRevoked(sessionId));
+        otherInstance.syncRevocations();
+        assertTrue(otherInstance.mightBeRevoked(sessionId));
+    }
+
+    @Test
+    void logoutEverywhereOutlivesTheInstance() throws Exception {
+        AuthResponseDTO tokens = login("everywhere-user");
+        mockMvc.perform(post("/auth/logout-all").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("refreshToken", tokens.refreshToken()))))
+                .andExpect(status().isNoContent());
+
+        assertRejected(tokens.accessToken());
+        // a restarted or second instance reads the generation from app_user
+        assertEquals(1, new TokenGenerationRegistry(userRepository, 5000, 100).current("everywhere-user"));
+        assertAccepted(login("everywhere-user").accessToken());
+    }
+
+    private AuthResponseDTO login(String username) throws Exception {
+        if (!userRepository.existsByUsername(username)) {
+            userRepository.save(User.builder()
+                    .username(username)
+                    .email(username + "@test.local")
+                    .password(passwordEncoder.encode("secret"))
+                    .roles(Set.of(Role.ROLE_STAFF))
+                    .build());
+        }
+        MvcResult started = mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("username", username, "password", "secret"))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponseDTO.class);
+    }
+
+    private AuthResponseDTO refresh(String refreshToken) throws Exception {
+        MvcResult result = mockMvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("refreshToken", refreshToken))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponseDTO.class);
+    }
+
+    private void assertAccepted(String bearer) throws Exception {
+        mockMvc.perform(get("/products/sku/NO-SUCH-SKU").header("Authorization", "Bearer " + bearer))
+                .andExpect(status().isNotFound());
+    }
+
+    private void assertRejected(String bearer) throws Exception {
+        mockMvc.perform(get("/products/sku/NO-SUCH-SKU").header("Authorization", "Bearer " + bearer))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String json(Map<String, String> body) throws Exception {
+        return objectMapper.writeValueAsString(body);
+    }
+}
@@ -0,0 +1,57 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.entity.Product;
+import com.smartinventory.inventory.entity.ProductSupplier;
+import com.smartinventory.inventory.entity.Supplier;
+import com.smartinventory.inventory.entity.UnitOfMeasure;
+import com.smartinventory.inventory.repository.ProductRepository;
+import com.smartinventory.inventory.repository.ProductSupplierRepository;
+import com.smartinventory.inventory.repository.SupplierRepository;
+
+import java.math.BigDecimal;
+
+/**
+ * Saves the supplier, product and preferred mapping that purchase order tests start from. Supplier email and
+ * phone are unique, so every test passes its own.
+ */
+final class CatalogFixture {
+    private final SupplierRepository supplierRepository;
+    private final ProductRepository productRepository;
+    private final ProductSupplierRepository productSupplierRepository;
+
+    CatalogFixture(SupplierRepository supplierRepository, ProductRepository productRepository,
+                   ProductSupplierRepository productSupplierRepository) {
+        this.supplierRepository = supplierRepository;
+        this.productRepository = productRepository;
+        this.productSupplierRepository = productSupplierRepository;
+    }
+
+    Supplier supplier(String name, String email, String phone) {
+        Supplier supplier = new Supplier();
+        supplier.setName(name);
+        supplier.setEmail(email);
+        supplier.setPhone(phone);
+        supplier.setAddress("Dock 1");
+        return supplierRepository.save(supplier);
+    }
+
+    // out of stock, with the supplier as its preferred one
+    Product preferredProduct(Supplier supplier, String name, String sku) {
+        Product product = new Product();
+        product.setName(name);
+        product.setSku(sku);
+        product.setPrice(new BigDecimal("9.99"));
+        product.setQuantity(BigDecimal.ZERO);
+        product.setUom(UnitOfMeasure.PCS);
+        product = productRepository.save(product);
+
+        productSupplierRepository.save(ProductSupplier.builder()
+                .product(product)
+                .supplier(supplier)
+                .supplierPrice(new BigDecimal("7.50"))
+                .leadTimeDays(2)
+                .preferredSupplier(true)
+                .build());
+        return product;
+    }
+}
@@ -0,0 +1,192 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.dto.InventoryValuationResponseDTO;
+import com.smartinventory.inventory.dto.ProductResponseDTO;
+import com.smartinventory.inventory.dto.SupplierValuationDTO;
+import com.smartinventory.inventory.entity.UnitOfMeasure;
+import com.smartinventory.inventory.event.ProductChangedEvent;
+import com.smartinventory.inventory.event.ProductSupplierChangedEvent;
+import com.smartinventory.inventory.event.StockChangedEvent;
+import com.smartinventory.inventory.repository.ProductRepository;
+import com.smartinventory.inventory.repository.ProductSupplierRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class InventoryValuationServiceTest {
+
+    private ProductRepository productRepository;
+    private InventoryValuationService service;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        ProductRepository.IdRange ids = mock(ProductRepository.IdRange.class);
+        when(ids.getMinId()).thenReturn(1L);
+        when(ids.getMaxId()).thenReturn(2L);
+        when(productRepository.findIdRange()).thenReturn(ids);
+        when(productRepository.findValuationRange(0L, 2L)).thenReturn(List.of(
+                row(1L, "10", "2.00", 10L),
+                row(2L, "5", "4.00", null)));
+        service = new InventoryValuationService(productRepository, mock(ProductSupplierRepository.class), 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clear();
+        }
+    }
+
+    @Test
+    void incrementalUpdatesMoveTheTotalsByTheDifference() {
+        service.recompute();
+        assertTotal("40.00", 2);
+
+        when(productRepository.findValuationByIdIn(anyCollection())).thenReturn(List.of(row(1L, "13", "2.00", 10L)));
+        service.onStockChanged(new StockChangedEvent(1L, new BigDecimal("3")));
+        assertTotal("46.00", 2);
+        // handled twice, counted once
+        service.onStockChanged(new StockChangedEvent(1L, new BigDecimal("3")));
+        assertTotal("46.00", 2);
+
+        // deleted: no longer returned, no longer valued
+        when(productRepository.findValuationByIdIn(anyCollection())).thenReturn(List.of());
+        service.onProductChanged(new ProductChangedEvent(product(2L), true));
+        assertTotal("26.00", 1);
+    }
+
+    @Test
+    void eventsInATransactionAreReadWithOneQueryAfterCommit() {
+        service.recompute();
+        when(productRepository.findValuationByIdIn(anyCollection())).thenReturn(List.of(
+                row(1L, "11", "2.00", 10L),
+                row(2L, "6", "4.00", null)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        service.onStockChanged(new StockChangedEvent(1L, BigDecimal.ONE));
+        service.onStockChanged(new StockChangedEvent(2L, BigDecimal.ONE));
+        service.onProductChanged(new ProductChangedEvent(product(1L), false));
+        verify(productRepository, never()).findValuationByIdIn(anyCollection());
+        assertTotal("40.00", 2);
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(productRepository, times(1)).findValuationByIdIn(ids.capture());
+        assertEquals(Set.of(1L, 2L), new HashSet<>(ids.getValue()));
+        assertTotal("46.00", 2);
+    }
+
+    @Test
+    void eventsOfARolledBackTransactionAreNotRead() {
+        service.recompute();
+
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        service.onStockChanged(new StockChangedEvent(1L, BigDecimal.ONE));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(productRepository, never()).findValuationByIdIn(anyCollection());
+        assertNull(TransactionSynchronizationManager.getResource(service));
+        assertTotal("40.00", 2);
+    }
+
+    @Test
+    void changeDuringARecomputeSurvivesTheSwap() throws Exception {
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        // the scan reads product 1 before a receipt commits, and finishes after its event was applied
+        when(productRepository.findValuationRange(0L, 2L)).thenAnswer(inv -> {
+            scanning.countDown();
+            assertTrue(changed.await(10, TimeUnit.SECONDS));
+            return List.of(row(1L, "10", "2.00", 10L), row(2L, "5", "4.00", null));
+        });
+        when(productRepository.findValuationByIdIn(anyCollection())).thenReturn(List.of(row(1L, "15", "2.00", 10L)));
+
+        ExecutorService recompute = Executors.newSingleThreadExecutor();
+        try {
+            Future<InventoryValuationResponseDTO> result = recompute.submit(service::recompute);
+            assertTrue(scanning.await(10, TimeUnit.SECONDS));
+            service.onStockChanged(new StockChangedEvent(1L, new BigDecimal("5")));
+            changed.countDown();
+
+            assertEquals(0, new BigDecimal("50.00").compareTo(result.get(10, TimeUnit.SECONDS).totalValue()));
+        } finally {
+            recompute.shutdownNow();
+        }
+        assertTotal("50.00", 2);
+    }
+
+    @Test
+    void preferredSupplierSwitchMovesTheValueBetweenSuppliers() {
+        service.recompute();
+        assertEquals(Map.of(10L, "20.00"), supplierValues());
+
+        when(productRepository.findValuationByIdIn(anyCollection())).thenReturn(List.of(row(1L, "10", "2.00", 20L)));
+        service.onProductSupplierChanged(new ProductSupplierChangedEvent(1L, 20L));
+        assertEquals(Map.of(20L, "20.00"), supplierValues());
+
+        // two preferred suppliers: the value goes to the lower id, once
+        when(productRepository.findValuationByIdIn(anyCollection())).thenReturn(List.of(
+                row(1L, "10", "2.00", 30L),
+                row(1L, "10", "2.00", 10L)));
+        service.onProductSupplierChanged(new ProductSupplierChangedEvent(1L, 10L));
+        assertEquals(Map.of(10L, "20.00"), supplierValues());
+        assertTotal("40.00", 2);
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(s -> s.afterCompletion(status));
+        TransactionSynchronizationManager.clear();
+    }
+
+    private void assertTotal(String value, long products) {
+        InventoryValuationResponseDTO valuation = service.getValuation();
+        assertEquals(0, new BigDecimal(value).compareTo(valuation.totalValue()), valuation.totalValue().toPlainString());
+        assertEquals(products, valuation.productCount());
+    }
+
+    // supplier id -> value, without the products that have no preferred supplier
+    private Map<Long, String> supplierValues() {
+        Map<Long, String> values = new HashMap<>();
+        for (SupplierValuationDTO supplier : service.getValuation().bySupplier()) {
+            if (supplier.supplierId() != null) {
+                values.put(supplier.supplierId(), supplier.value().toPlainString());
+            }
+        }
+        return values;
+    }
+
+    private static ProductResponseDTO product(long id) {
+        return new ProductResponseDTO(id, null, null, null, null, null, null, null, null);
+    }
+
+    private static ProductRepository.ValuationView row(Long id, String quantity, String price, Long supplierId) {
+        return new ProductRepository.ValuationView() {
+            public Long getId() { return id; }
+            public BigDecimal getQuantity() { return new BigDecimal(quantity); }
+            public BigDecimal getPrice() { return new BigDecimal(price); }
+            public UnitOfMeasure getUom() { return UnitOfMeasure.PCS; }
+            public Long getSupplierId() { return supplierId; }
+        };
+    }
+}
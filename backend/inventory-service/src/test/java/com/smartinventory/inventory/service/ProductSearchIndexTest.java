@@ -0,0 +1,89 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.dto.ProductResponseDTO;
+import com.smartinventory.inventory.entity.Product;
+import com.smartinventory.inventory.event.ProductChangedEvent;
+import com.smartinventory.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(product(1L, "Hex Bolt M8", "BOLT-8"), product(2L, "Wing Nut", "NUT-2")));
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Limit.class))).thenReturn(List.of());
+        index = new ProductSearchIndex(productRepository, 1000);
+        index.rebuild();
+    }
+
+    @Test
+    void ranksSkuAndNameMatches() {
+        index.onProductChanged(changed(3L, "Bolt Cutter", "CUT-3", false));
+        index.onProductChanged(changed(4L, "Carriage Bolt", "CB-4", false));
+
+        // SKU prefix, then name prefix, then a word inside the name
+        assertEquals(List.of(1L, 3L, 4L), index.search("bolt"));
+        assertEquals(List.of(2L), index.search(" nut-2 "));
+        assertEquals(List.of(), index.search("screw"));
+    }
+
+    @Test
+    void matchesSubstringsNotJustSharedGrams() {
+        index.onProductChanged(changed(3L, "Banana Plug", "BP-3", false));
+
+        assertEquals(List.of(3L), index.search("anana"));
+        // every gram of "nanana" is in "banana", the keyword isn't
+        assertEquals(List.of(), index.search("nanana"));
+    }
+
+    @Test
+    void rejectsShortQueriesAndSkipsDescriptions() {
+        assertEquals(List.of(), index.search("bo"));
+        index.onProductChanged(new ProductChangedEvent(
+                new ProductResponseDTO(5L, "Washer", null, null, "WSH-5", "fits every bolt", "PCS", null, null), false));
+        assertEquals(List.of(1L), index.search("bolt"));
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() {
+        index.onProductChanged(changed(1L, "Hex Screw M8", "SCR-8", false));
+        assertEquals(List.of(), index.search("bolt"));
+        assertEquals(List.of(1L), index.search("screw"));
+        // unchanged grams stay indexed
+        assertEquals(List.of(1L), index.search("hex"));
+
+        index.onProductChanged(changed(2L, "Wing Nut", "NUT-2", true));
+        assertEquals(List.of(), index.search("nut"));
+
+        // restored under its old id, below the highest one
+        index.onProductChanged(changed(7L, "Lock Nut", "NUT-7", false));
+        index.onProductChanged(changed(2L, "Wing Nut", "NUT-2", false));
+        assertEquals(List.of(7L, 2L), index.search("nut-"));
+    }
+
+    private static Product product(long id, String name, String sku) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setSku(sku);
+        return product;
+    }
+
+    private static ProductChangedEvent changed(long id, String name, String sku, boolean removed) {
+        return new ProductChangedEvent(new ProductResponseDTO(id, name, null, null, sku, null, "PCS", null, null), removed);
+    }
+}
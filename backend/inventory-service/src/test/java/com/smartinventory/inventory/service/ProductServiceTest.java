@@ -0,0 +1,42 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.dto.ProductRequestDTO;
+import com.smartinventory.inventory.dto.ProductResponseDTO;
+import com.smartinventory.inventory.exception.ProductNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductServiceTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void restoredProductIsFoundAndSearchableAgain() {
+        ProductResponseDTO product = productService.addProduct(new ProductRequestDTO(
+                "Restorable Hinge", new BigDecimal("3"), new BigDecimal("4.50"), "RESTORE-1", "PCS", null));
+
+        productService.deleteProduct(product.id());
+        assertThrows(ProductNotFoundException.class, () -> productService.getProductById(product.id()));
+        assertEquals(List.of(), searchIds("Restorable"));
+
+        productService.restoreProduct(product.id());
+        assertEquals(0, new BigDecimal("3").compareTo(productService.getProductById(product.id()).quantity()));
+        assertEquals(List.of(product.id()), searchIds("Restorable"));
+    }
+
+    private List<Long> searchIds(String keyword) {
+        return productService.searchProducts(keyword, PageRequest.of(0, 10)).map(ProductResponseDTO::id).getContent();
+    }
+}
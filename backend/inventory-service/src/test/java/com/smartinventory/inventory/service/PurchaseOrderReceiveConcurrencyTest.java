@@ -0,0 +1,110 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.dto.*;
+import com.smartinventory.inventory.entity.Product;
+import com.smartinventory.inventory.entity.Supplier;
+import com.smartinventory.inventory.exception.StaleQuantityException;
+import com.smartinventory.inventory.repository.ProductRepository;
+import com.smartinventory.inventory.repository.ProductSupplierRepository;
+import com.smartinventory.inventory.repository.StockMovementRepository;
+import com.smartinventory.inventory.repository.SupplierRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PurchaseOrderReceiveConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int ORDERS = 40;
+    private static final BigDecimal ORDERED = new BigDecimal("5");
+
+    @Autowired
+    private PurchaseOrderService purchaseOrderService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SupplierRepository supplierRepository;
+    @Autowired
+    private ProductSupplierRepository productSupplierRepository;
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+    @Autowired
+    private ProductService productService;
+    private CatalogFixture catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new CatalogFixture(supplierRepository, productRepository, productSupplierRepository);
+    }
+
+    @Test
+    void manyThreadsReceivingOneSkuLoseNoStockAndDontBumpVersion() throws Exception {
+        Supplier supplier = catalog.supplier("Hot SKU Supplier", "hot-sku@test.local", "9000000001");
+        Product product = catalog.preferredProduct(supplier, "Hot SKU", "HOT-SKU-1");
+        Long versionBefore = product.getVersion();
+
+        // one PO per receipt, all for the same SKU
+        List<PurchaseOrderResponseDTO> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            orders.add(purchaseOrderService.createPurchaseOrder(new PurchaseOrderRequestDTO(
+                    supplier.getId(), List.of(new PurchaseOrderLineRequestDTO(product.getId(), ORDERED)))));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<PurchaseOrderResponseDTO>> results = new ArrayList<>();
+        for (PurchaseOrderResponseDTO po : orders) {
+            PurchaseOrderReceiveRequestDTO receipt = new PurchaseOrderReceiveRequestDTO(
+                    List.of(new PurchaseOrderReceiveLineDTO(po.lines().get(0).id(), ORDERED)), "R-" + po.id());
+            results.add(pool.submit(() -> {
+                start.await();
+                return purchaseOrderService.receivePurchaseOrder(po.id(), receipt);
+            }));
+        }
+        start.countDown();
+        for (Future<PurchaseOrderResponseDTO> result : results) {
+            // any OptimisticLockingFailureException would surface here
+            assertEquals("RECEIVED", result.get(60, TimeUnit.SECONDS).orderStatus());
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        Product after = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(0, ORDERED.multiply(BigDecimal.valueOf(ORDERS)).compareTo(after.getQuantity()));
+        assertEquals(versionBefore, after.getVersion());
+        assertEquals(ORDERS, stockMovementRepository.findByProductId(product.getId()).size());
+    }
+
+    @Test
+    void catalogEditWithQuantityReadBeforeAReceiptIsRejectedAndKeepsTheReceipt() {
+        Supplier supplier = catalog.supplier("Stale Edit Supplier", "stale-edit@test.local", "9000000011");
+        Product product = catalog.preferredProduct(supplier, "Stale Edit SKU", "STALE-EDIT-1");
+        ProductResponseDTO seen = productService.getProductById(product.getId());
+
+        PurchaseOrderResponseDTO po = purchaseOrderService.createPurchaseOrder(new PurchaseOrderRequestDTO(
+                supplier.getId(), List.of(new PurchaseOrderLineRequestDTO(product.getId(), ORDERED))));
+        purchaseOrderService.receivePurchaseOrder(po.id(), new PurchaseOrderReceiveRequestDTO(
+                List.of(new PurchaseOrderReceiveLineDTO(po.lines().get(0).id(), ORDERED)), "R-STALE"));
+
+        // the edit still carries the quantity read before the receipt
+        ProductRequestDTO edit = new ProductRequestDTO("Renamed", seen.quantity(), seen.price(), seen.sku(), seen.uom(), null);
+        assertThrows(StaleQuantityException.class, () -> productService.updateProduct(product.getId(), edit));
+
+        Product after = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(0, ORDERED.compareTo(after.getQuantity()));
+        assertEquals("Stale Edit SKU", after.getName());
+    }
+}
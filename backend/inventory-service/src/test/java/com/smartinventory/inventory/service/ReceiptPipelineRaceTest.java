@@ -0,0 +1,86 @@
+package com.smartinventory.inventory.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartinventory.inventory.dto.*;
+import com.smartinventory.inventory.entity.*;
+import com.smartinventory.inventory.repository.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReceiptPipelineRaceTest {
+
+    private static final int RECEIPTS = 30;
+    private static final BigDecimal ORDERED = new BigDecimal("3");
+
+    @Autowired
+    private PurchaseOrderService purchaseOrderService;
+    @Autowired
+    private PurchaseOrderRepository purchaseOrderRepository;
+    @Autowired
+    private ReceiptRequestRepository receiptRequestRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SupplierRepository supplierRepository;
+    @Autowired
+    private ProductSupplierRepository productSupplierRepository;
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Test
+    void twoWritersApplyEachReceiptExactlyOnce() throws Exception {
+        CatalogFixture catalog = new CatalogFixture(supplierRepository, productRepository, productSupplierRepository);
+        Supplier supplier = catalog.supplier("Race Supplier", "race@test.local", "9000000002");
+        Product product = catalog.preferredProduct(supplier, "Raced SKU", "RACE-SKU-1");
+
+        // two instances: "a" has the receipts in its queue, "b" finds them PENDING in the table when it starts
+        ReceiptPipeline a = pipeline();
+        ReceiptPipeline b = pipeline();
+        List<Long> receiptIds = new ArrayList<>();
+        for (int i = 0; i < RECEIPTS; i++) {
+            PurchaseOrderResponseDTO po = purchaseOrderService.createPurchaseOrder(new PurchaseOrderRequestDTO(
+                    supplier.getId(), List.of(new PurchaseOrderLineRequestDTO(product.getId(), ORDERED))));
+            receiptIds.add(a.submit(po.id(), new PurchaseOrderReceiveRequestDTO(
+                    List.of(new PurchaseOrderReceiveLineDTO(po.lines().get(0).id(), ORDERED)), "RACE-" + i)).receiptId());
+        }
+
+        b.start();
+        a.start();
+        try {
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (receiptRequestRepository.findAllById(receiptIds).stream().anyMatch(r -> r.getStatus() == ReceiptStatus.PENDING)) {
+                assertTrue(System.currentTimeMillis() < deadline, "receipts still pending");
+                Thread.sleep(50);
+            }
+        } finally {
+            a.stop();
+            b.stop();
+        }
+
+        assertTrue(receiptRequestRepository.findAllById(receiptIds).stream().allMatch(r -> r.getStatus() == ReceiptStatus.APPLIED));
+        Product after = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(0, ORDERED.multiply(BigDecimal.valueOf(RECEIPTS)).compareTo(after.getQuantity()));
+        assertEquals(RECEIPTS, stockMovementRepository.findByProductId(product.getId()).size());
+    }
+
+    private ReceiptPipeline pipeline() {
+        return new ReceiptPipeline(purchaseOrderService, purchaseOrderRepository, receiptRequestRepository,
+                transactionTemplate, objectMapper, 100, 5, 10, 60_000);
+    }
+}
@@ -0,0 +1,123 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.dto.ReservationRequestDTO;
+import com.smartinventory.inventory.entity.Product;
+import com.smartinventory.inventory.event.StockChangedEvent;
+import com.smartinventory.inventory.exception.InsufficientStockException;
+import com.smartinventory.inventory.exception.ReservationNotFoundException;
+import com.smartinventory.inventory.repository.ProductRepository;
+import com.smartinventory.inventory.repository.StockMovementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StockReservationServiceTest {
+
+    private static final long PRODUCT_ID = 1L;
+
+    private ProductRepository productRepository;
+    private StockReservationService service;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        Product product = new Product();
+        product.setId(PRODUCT_ID);
+        product.setQuantity(new BigDecimal("100"));
+        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
+        service = new StockReservationService(productRepository, mock(StockMovementRepository.class),
+                mock(TransactionTemplate.class), 900, 500);
+    }
+
+    @Test
+    void concurrentReservesNeverOversell() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    service.reserve(new ReservationRequestDTO(PRODUCT_ID, BigDecimal.ONE, null, "ORDER", 7L));
+                    granted.incrementAndGet();
+                } catch (InsufficientStockException ex) {
+                    refused.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(100, granted.get());
+        assertEquals(200, refused.get());
+        assertEquals(0, service.getAvailability(PRODUCT_ID).available().signum());
+    }
+
+    @Test
+    void releaseFreesStockOnce() {
+        String id = service.reserve(new ReservationRequestDTO(PRODUCT_ID, new BigDecimal("40"), null, null, null)).reservationId();
+        assertEquals(0, new BigDecimal("60").compareTo(service.getAvailability(PRODUCT_ID).available()));
+
+        service.release(id);
+        assertEquals(0, new BigDecimal("100").compareTo(service.getAvailability(PRODUCT_ID).available()));
+        assertThrows(ReservationNotFoundException.class, () -> service.release(id));
+        assertEquals(0, service.getAvailability(PRODUCT_ID).reserved().signum());
+    }
+
+    @Test
+    void expiredReservationsAreReleasedAndCannotBeReleasedAgain() throws Exception {
+        String expiring = service.reserve(new ReservationRequestDTO(PRODUCT_ID, new BigDecimal("30"), 1L, null, null)).reservationId();
+        service.reserve(new ReservationRequestDTO(PRODUCT_ID, new BigDecimal("20"), null, null, null));
+
+        service.expireReservations();
+        assertEquals(0, new BigDecimal("50").compareTo(service.getAvailability(PRODUCT_ID).available()));
+
+        Thread.sleep(1100);
+        service.expireReservations();
+        assertEquals(0, new BigDecimal("80").compareTo(service.getAvailability(PRODUCT_ID).available()));
+        assertThrows(ReservationNotFoundException.class, () -> service.release(expiring));
+    }
+
+    @Test
+    void stockChangesFollowTheFirstRead() {
+        service.onStockChanged(new StockChangedEvent(PRODUCT_ID, new BigDecimal("5")));
+        assertEquals(0, new BigDecimal("100").compareTo(service.getAvailability(PRODUCT_ID).onHand()));
+
+        service.onStockChanged(new StockChangedEvent(PRODUCT_ID, new BigDecimal("5")));
+        assertEquals(0, new BigDecimal("105").compareTo(service.getAvailability(PRODUCT_ID).onHand()));
+    }
+
+    @Test
+    void stockChangeCommittedDuringTheFirstReadIsNotLost() {
+        Product before = new Product();
+        before.setQuantity(new BigDecimal("100"));
+        Product after = new Product();
+        after.setQuantity(new BigDecimal("105"));
+        // the receipt commits and its event arrives while the first read is on its way back with the old value
+        when(productRepository.findById(PRODUCT_ID))
+                .thenAnswer(inv -> {
+                    service.onStockChanged(new StockChangedEvent(PRODUCT_ID, new BigDecimal("5")));
+                    return Optional.of(before);
+                })
+                .thenReturn(Optional.of(after));
+
+        assertEquals(0, new BigDecimal("105").compareTo(service.getAvailability(PRODUCT_ID).onHand()));
+    }
+}
@@ -0,0 +1,95 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.dto.DailyMovementResponseDTO;
+import com.smartinventory.inventory.entity.MovementType;
+import com.smartinventory.inventory.entity.Product;
+import com.smartinventory.inventory.entity.StockMovement;
+import com.smartinventory.inventory.entity.UnitOfMeasure;
+import com.smartinventory.inventory.repository.ProductRepository;
+import com.smartinventory.inventory.repository.StockMovementRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockRollupServiceTest {
+
+    @Autowired
+    private StockRollupService stockRollupService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Test
+    void netChangeFromRollupsMatchesTheRawMovements() {
+        Product product = new Product();
+        product.setName("Rolled SKU");
+        product.setSku("ROLL-SKU-1");
+        product.setPrice(new BigDecimal("1.00"));
+        product.setQuantity(BigDecimal.ZERO);
+        product.setUom(UnitOfMeasure.PCS);
+        product = productRepository.save(product);
+
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        List<StockMovement> movements = List.of(
+                movement(product, MovementType.IN, "10", today.minusDays(5).plusHours(9)),
+                movement(product, MovementType.OUT, "3", today.minusDays(5).plusHours(18)),
+                movement(product, MovementType.ADJUSTMENT, "2", today.minusDays(4).plusHours(12)),
+                movement(product, MovementType.RESERVE, "4", today.minusDays(3).plusHours(8)),
+                movement(product, MovementType.IN, "5", today.minusDays(2).minusSeconds(1)),
+                movement(product, MovementType.OUT, "1", today.minusDays(1)),
+                movement(product, MovementType.IN, "7", today));
+        stockMovementRepository.saveAll(movements);
+
+        stockRollupService.rollUp();
+
+        List<DailyMovementResponseDTO> days = stockRollupService.getDailyMovements(product.getId(),
+                today.minusDays(6).toLocalDate(), today.toLocalDate());
+        assertEquals(5, days.size());
+        assertEquals(0, new BigDecimal("10").compareTo(days.get(0).inQuantity()));
+        assertEquals(0, new BigDecimal("3").compareTo(days.get(0).outQuantity()));
+        assertEquals(2, days.get(0).movementCount());
+        assertEquals(0, new BigDecimal("7").compareTo(days.get(4).inQuantity()));
+
+        // windows with partial days at both edges, whole rolled-up days inside, and the un-rolled current day
+        LocalDateTime[][] windows = {
+                {today.minusDays(6), today.plusDays(1)},
+                {today.minusDays(5).plusHours(12), today.minusDays(1).plusHours(12)},
+                {today.minusDays(5).plusHours(9), today.minusDays(2).minusSeconds(1)},
+                {today.minusDays(4), today},
+                {today.minusDays(3).plusHours(7), today.minusDays(3).plusHours(9)},
+                {today.minusDays(2).minusSeconds(1), today.minusDays(1)},
+        };
+        for (LocalDateTime[] window : windows) {
+            assertEquals(0, expectedNet(movements, window[0], window[1])
+                            .compareTo(stockRollupService.netChange(product.getId(), window[0], window[1])),
+                    "net change over (" + window[0] + ", " + window[1] + "]");
+        }
+    }
+
+    private static BigDecimal expectedNet(List<StockMovement> movements, LocalDateTime from, LocalDateTime to) {
+        return movements.stream()
+                .filter(m -> m.getCreatedAt().isAfter(from) && !m.getCreatedAt().isAfter(to))
+                .map(m -> m.getQuantity().multiply(BigDecimal.valueOf(m.getMovementType().getStockSign())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static StockMovement movement(Product product, MovementType type, String quantity, LocalDateTime at) {
+        return StockMovement.builder()
+                .product(product)
+                .movementType(type)
+                .quantity(new BigDecimal(quantity))
+                .createdAt(at)
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.smartinventory.inventory.service;
+
+import com.smartinventory.inventory.event.ProductSupplierChangedEvent;
+import com.smartinventory.inventory.repository.ProductSupplierRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class SupplierPriceMatrixTest {
+
+    private static final long SUPPLIER = 1L;
+
+    @Test
+    void collidingKeysWrapAroundAndCanBeOverwrittenAndRemoved() {
+        SupplierPriceMatrix.Table table = new SupplierPriceMatrix.Table(16);
+        // three products whose home is the last slot: the second and third wrap to slots 0 and 1
+        long[] products = productsWithHome(table, 15, 3);
+        for (long product : products) {
+            assertSame(table, table.put(product, SUPPLIER, product * 100, 1));
+        }
+        assertEquals(products[1], table.productIds[0]);
+        assertEquals(products[2], table.productIds[1]);
+
+        table.put(products[1], SUPPLIER, 999, 7);
+        assertEquals(3, table.size);
+        assertEquals(new SupplierPriceMatrix.SupplierPrice(new BigDecimal("9.99"), 7), table.find(products[1], SUPPLIER));
+
+        table.remove(products[0], SUPPLIER);
+        assertEquals(2, table.size);
+        assertNull(table.find(products[0], SUPPLIER));
+        assertEquals(new BigDecimal("9.99"), table.find(products[1], SUPPLIER).price());
+        assertEquals(BigDecimal.valueOf(products[2] * 100, 2), table.find(products[2], SUPPLIER).price());
+
+        // not there: nothing changes
+        table.remove(products[0], SUPPLIER);
+        assertEquals(2, table.size);
+    }
+
+    @Test
+    void removeKeepsEntriesDisplacedPastTheFreedSlotFindable() {
+        SupplierPriceMatrix.Table table = new SupplierPriceMatrix.Table(16);
+        long[] lastSlot = productsWithHome(table, 15, 3);
+        long firstSlot = productsWithHome(table, 0, 1)[0];
+        // slots 15, 0, 1, 2 hold a run of entries with homes 15, 15, 0, 15
+        table.put(lastSlot[0], SUPPLIER, 100, 1);
+        table.put(lastSlot[1], SUPPLIER, 200, 1);
+        table.put(firstSlot, SUPPLIER, 300, 1);
+        table.put(lastSlot[2], SUPPLIER, 400, 1);
+
+        table.remove(lastSlot[1], SUPPLIER);
+
+        assertNull(table.find(lastSlot[1], SUPPLIER));
+        assertEquals(new BigDecimal("1.00"), table.find(lastSlot[0], SUPPLIER).price());
+        assertEquals(new BigDecimal("3.00"), table.find(firstSlot, SUPPLIER).price());
+        assertEquals(new BigDecimal("4.00"), table.find(lastSlot[2], SUPPLIER).price());
+        // the run closed up behind the freed slot
+        assertEquals(firstSlot, table.productIds[0]);
+        assertEquals(lastSlot[2], table.productIds[1]);
+        assertEquals(0, table.productIds[2]);
+    }
+
+    @Test
+    void putPastHalfFullDoublesTheTable() {
+        SupplierPriceMatrix.Table table = new SupplierPriceMatrix.Table(4);
+        table = table.put(1, SUPPLIER, 100, 1);
+        table = table.put(2, SUPPLIER, 200, 2);
+        assertEquals(4, table.productIds.length);
+
+        SupplierPriceMatrix.Table bigger = table.put(3, SUPPLIER, 300, 3);
+        assertNotSame(table, bigger);
+        assertEquals(8, bigger.productIds.length);
+        assertEquals(3, bigger.size);
+        for (long product = 1; product <= 3; product++) {
+            assertEquals(new SupplierPriceMatrix.SupplierPrice(BigDecimal.valueOf(product * 100, 2), (int) product),
+                    bigger.find(product, SUPPLIER));
+        }
+    }
+
+    @Test
+    void lookedUpRowIsKeptForLaterLookups() {
+        ProductSupplierRepository repository = mock(ProductSupplierRepository.class);
+        when(repository.findPriceViews(eq(SUPPLIER), anyCollection())).thenReturn(List.of(row(5L, "12.50")));
+        SupplierPriceMatrix matrix = new SupplierPriceMatrix(repository, 100);
+
+        assertEquals(Map.of(5L, new BigDecimal("12.50")), matrix.findPrices(SUPPLIER, List.of(5L)));
+        assertEquals(Map.of(5L, new BigDecimal("12.50")), matrix.findPrices(SUPPLIER, List.of(5L)));
+        verify(repository, times(1)).findPriceViews(eq(SUPPLIER), anyCollection());
+    }
+
+    @Test
+    void lookedUpRowIsNotKeptWhenAnEventLandedWhileItWasRead() {
+        ProductSupplierRepository repository = mock(ProductSupplierRepository.class);
+        SupplierPriceMatrix matrix = new SupplierPriceMatrix(repository, 100);
+        // the mapping is deleted and its event applied while the lookup is on its way back with the old row
+        when(repository.findPriceView(anyLong(), anyLong())).thenReturn(Optional.empty());
+        when(repository.findPriceViews(eq(SUPPLIER), anyCollection())).thenAnswer(inv -> {
+            matrix.onProductSupplierChanged(new ProductSupplierChangedEvent(5L, SUPPLIER));
+            return List.of(row(5L, "12.50"));
+        });
+
+        assertEquals(Map.of(5L, new BigDecimal("12.50")), matrix.findPrices(SUPPLIER, List.of(5L)));
+        assertNull(matrix.find(5L, SUPPLIER));
+    }
+
+    // the first {@code count} product ids that, with SUPPLIER, hash to {@code home}
+    private static long[] productsWithHome(SupplierPriceMatrix.Table table, int home, int count) {
+        List<Long> found = new ArrayList<>();
+        for (long product = 1; found.size() < count; product++) {
+            if (table.home(product, SUPPLIER) == home) {
+                found.add(product);
+            }
+        }
+        return found.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static ProductSupplierRepository.PriceView row(Long productId, String price) {
+        return new ProductSupplierRepository.PriceView() {
+            public Long getId() { return productId; }
+            public Long getProductId() { return productId; }
+            public Long getSupplierId() { return SUPPLIER; }
+            public BigDecimal getSupplierPrice() { return new BigDecimal(price); }
+            public Integer getLeadTimeDays() { return 3; }
+        };
+    }
+}